@@ -0,0 +1,60 @@
+import com.google.inject.AbstractModule;
+import com.typesafe.config.Config;
+import dao.CatalogSearch;
+import dao.CirculationProjector;
+import dao.DatabaseCatalogSearch;
+import dao.InMemoryCatalogSearch;
+import dao.NotificationDispatcher;
+import notifications.FileNotificationSink;
+import notifications.LogNotificationSink;
+import notifications.NotificationSink;
+import play.Environment;
+
+
+/**
+ * Guice module loaded by Play on start-up, which binds the components that need to run for the entire
+ * application runtime without being requested by a Controller, and the components selected by configuration.
+ */
+public class Module extends AbstractModule {
+
+
+    /**
+     * Application configuration, from which the configured components are selected
+     */
+    private final Config config;
+
+
+    /**
+     * Constructor method, invoked by Play with the application environment and configuration
+     * @param environment
+     * @param config
+     */
+    public Module(Environment environment, Config config) {
+        this.config = config;
+    }
+
+
+    /**
+     * Method to declare the bindings of this module. The CirculationProjector and NotificationDispatcher are bound as
+     * eager singletons, so that they start as soon as the application starts. The NotificationSink is bound to
+     * the implementation named by the "library.notifications.sink" setting, and the CatalogSearch to the one named by
+     * the "library.search.mode" setting. The in-memory search is bound eagerly, so that its index is built on start.
+     */
+    @Override
+    protected void configure() {
+        bind(CirculationProjector.class).asEagerSingleton();
+        bind(NotificationDispatcher.class).asEagerSingleton();
+        if ("file".equals(config.getString("library.notifications.sink"))) {
+            bind(NotificationSink.class).to(FileNotificationSink.class);
+        } else {
+            bind(NotificationSink.class).to(LogNotificationSink.class);
+        }
+        if ("database".equals(config.getString("library.search.mode"))) {
+            bind(CatalogSearch.class).to(DatabaseCatalogSearch.class);
+        } else {
+            bind(CatalogSearch.class).to(InMemoryCatalogSearch.class).asEagerSingleton();
+        }
+    }
+
+
+}
@@ -1,21 +1,38 @@
 package controllers;
 
+import akka.util.ByteString;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dao.BulkInsertResult;
+import dao.DatabaseExecutionContext;
+import dao.Page;
+import dao.PageCursor;
 import dao.DvdDao;
 import exceptions.MaximumCapacityException;
 import models.Dvd;
-import models.ItemTransactionLog;
-import models.Reservation;
 import play.libs.Json;
+import play.mvc.BodyParser;
 import play.mvc.Controller;
+import play.mvc.Http;
 import play.mvc.Result;
 
 import javax.inject.Inject;
 import javax.persistence.EntityExistsException;
 import javax.persistence.EntityNotFoundException;
-import java.util.Set;
+import javax.persistence.OptimisticLockException;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 
 /**
@@ -32,26 +49,71 @@ public class DvdController extends Controller {
 
 
     /**
-     * Constructor method. Uses Guice dependency injection to resolve DvdDao dependency
+     * Execution Context on which blocking Dvd Dao calls are executed
+     */
+    DatabaseExecutionContext dbExecutionContext;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve DvdDao and DatabaseExecutionContext dependency
      * @param dvdDao
+     * @param dbExecutionContext
      */
     @Inject
-    public DvdController(DvdDao dvdDao) {
+    public DvdController(DvdDao dvdDao, DatabaseExecutionContext dbExecutionContext) {
         this.dvdDao = dvdDao;
+        this.dbExecutionContext = dbExecutionContext;
     }
 
 
     /**
      * Method which services and responds to Client request for listing all existing Dvds.
      * @return - returns an OK HTTP response with a JSON object containing set of Dvd, returns a Not Found HTTP response
-     * if no Dvd exists.
+     * if no Dvd exists. Responds with Not Modified if the Client's If-None-Match header matches the entity tag of
+     * the current listing. When a limit or cursor is given, responds with a single page of Dvds instead.
+     * @param limit - maximum number of Dvds in the page, or 0 to list all Dvds
+     * @param cursor - cursor of the page to be fetched, as returned in the "next" field of the previous page
+     * @param sort - sort order of the first page, either isbn or title
      */
-    public Result list() {
-        Set<Dvd> setOfDvd = dvdDao.getAllDvd();
-        if(setOfDvd.size() == 0)
-            return notFound(Json.toJson("No Dvd's found. Please add Dvd's to database first."));
-        else
-            return ok(Json.toJson(setOfDvd));
+    public CompletionStage<Result> list(int limit, String cursor, String sort) {
+        if (limit > 0 || cursor != null) {
+            return listPage(limit, cursor, sort);
+        }
+        String ifNoneMatch = request().getHeaders().get(IF_NONE_MATCH).orElse(null);
+        return CompletableFuture.supplyAsync(() -> dvdDao.getAllDvdSnapshot(), dbExecutionContext)
+                .thenApply(snapshot -> {
+                    if(snapshot.getSize() == 0)
+                        return notFound(Json.toJson("No Dvd's found. Please add Dvd's to database first."));
+                    else if(snapshot.matches(ifNoneMatch))
+                        return status(NOT_MODIFIED).withHeader(ETAG, snapshot.getEtag());
+                    else
+                        return ok(snapshot.getBody()).as("application/json").withHeader(ETAG, snapshot.getEtag());
+                });
+    }
+
+
+    /**
+     * Private method which services Client requests for a single page of Dvds, using keyset pagination.
+     * @param limit - maximum number of Dvds in the page, capped at Page.MAX_LIMIT
+     * @param cursor - cursor of the page to be fetched, or null for the first page
+     * @param sort - sort order of the first page, either isbn or title
+     * @return - an OK HTTP response with the Dvds in the page and the cursor of the next page, or a Bad Request
+     * response if the cursor or sort order is invalid.
+     */
+    private CompletionStage<Result> listPage(int limit, String cursor, String sort) {
+        PageCursor after;
+        try {
+            after = cursor == null ? null : PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Invalid page cursor.")));
+        }
+        if (!PageCursor.SORT_BY_ISBN.equals(sort) && !PageCursor.SORT_BY_TITLE.equals(sort)) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Sort order should be either isbn " +
+                    "or title.")));
+        }
+        int pageLimit = limit <= 0 ? Page.MAX_LIMIT : Math.min(limit, Page.MAX_LIMIT);
+        return CompletableFuture.supplyAsync(() -> dvdDao.findPage(after, sort, pageLimit), dbExecutionContext)
+                .thenApply(page -> ok(Json.toJson(page)));
     }
 
 
@@ -60,13 +122,15 @@ public class DvdController extends Controller {
      * @param isbn
      * @return - an OK HTTP response with Dvd details if found, else a Not Found response with an error message.
      */
-    public Result get(String isbn) {
-        try {
-            Dvd toReturn = dvdDao.getDvdByIsbn(isbn);
-            return ok(Json.toJson(toReturn));
-        } catch (EntityNotFoundException e) {
-            return notFound(Json.toJson("Dvd not found for given ISBN."));
-        }
+    public CompletionStage<Result> get(String isbn) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Dvd toReturn = dvdDao.getDvdByIsbn(isbn);
+                return ok(Json.toJson(toReturn));
+            } catch (EntityNotFoundException e) {
+                return notFound(Json.toJson("Dvd not found for given ISBN."));
+            }
+        }, dbExecutionContext);
     }
 
 
@@ -76,50 +140,96 @@ public class DvdController extends Controller {
      * if the library has reached maximum capacity for Dvd or already has a record for the given Dvd or a Bad Request
      * response if the request sent by Client is empty.
      */
-    public Result save() {
+    public CompletionStage<Result> save() {
         JsonNode requestBody = request().body().asJson();
         Dvd dvd;
         if (requestBody == null) {
-            return badRequest(Json.toJson("Empty POST request"));
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Empty POST request")));
         } else {
             dvd = new ObjectMapper().enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY).
                     convertValue(requestBody, Dvd.class);
-            try {
-                dvdDao.insertDvd(dvd);
-                return created(Json.toJson(String.format("Inserted item into database. Remaining library capacity " +
-                                "for Dvd is %s.",
-                        String.valueOf(Dvd.MAX_LIBRARY_CAPACITY - dvdDao.getDvdCount()))));
-            } catch (MaximumCapacityException | EntityExistsException e) {
-                if(e instanceof  MaximumCapacityException)
-                    return forbidden(Json.toJson("Maximum capacity for Dvd reached. Please delete record of any " +
-                            "damaged or " + "non existent Dvd."));
-                else {
-                    return forbidden(Json.toJson("Record already exists for the given Dvd. Please recheck " +
-                            "and enter details"));
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    dvdDao.insertDvd(dvd);
+                    return created(Json.toJson(String.format("Inserted item into database. Remaining library " +
+                                    "capacity for Dvd is %s.",
+                            String.valueOf(Dvd.MAX_LIBRARY_CAPACITY - dvdDao.getDvdCount()))));
+                } catch (MaximumCapacityException | EntityExistsException e) {
+                    if(e instanceof  MaximumCapacityException)
+                        return forbidden(Json.toJson("Maximum capacity for Dvd reached. Please delete record of " +
+                                "any damaged or " + "non existent Dvd."));
+                    else {
+                        return forbidden(Json.toJson("Record already exists for the given Dvd. Please recheck " +
+                                "and enter details"));
+                    }
                 }
-            }
+            }, dbExecutionContext);
+        }
+    }
+
+
+    /**
+     * Method which services and responds to Client request for importing many new Dvds into the database at once.
+     * The request body is either a JSON array of Dvds or newline-delimited JSON with one Dvd per line, and is
+     * parsed incrementally while the Dvds are inserted in batches.
+     * @return - a Created HTTP response with the number of inserted Dvds and the ISBNs of skipped Dvds, or a Bad
+     * Request response if the request body is empty or not valid JSON. Dvds in batches committed before the
+     * malformed part of the body remain inserted.
+     */
+    @BodyParser.Of(BodyParser.Raw.class)
+    public CompletionStage<Result> bulkSave() {
+        Http.RawBuffer requestBody = request().body().asRaw();
+        if (requestBody == null || requestBody.size() == 0) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Empty POST request")));
         }
+        ObjectReader reader = new ObjectMapper().enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+                .readerFor(Dvd.class);
+        return CompletableFuture.supplyAsync(() -> {
+            ByteString bytes = requestBody.asBytes();
+            try (InputStream in = bytes != null ? new ByteArrayInputStream(bytes.toArray())
+                    : new FileInputStream(requestBody.asFile());
+                 MappingIterator<Dvd> dvds = reader.readValues(in)) {
+                BulkInsertResult result = dvdDao.insertDvds(dvds);
+                return created(Json.toJson(result));
+            } catch (JsonProcessingException e) {
+                return badRequest(Json.toJson("Malformed JSON in request body: " + e.getOriginalMessage()));
+            } catch (RuntimeException e) {
+                if (e.getCause() instanceof JsonProcessingException) {
+                    return badRequest(Json.toJson("Malformed JSON in request body: " +
+                            ((JsonProcessingException) e.getCause()).getOriginalMessage()));
+                }
+                throw e;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, dbExecutionContext);
     }
 
 
     /**
      * Method which services and responds to Client request to update details of a Dvd in the database.
      * @return - an OK HTTP response if the Dvd was succesfully updated, otherwise return a Not Found response if a Dvd
-     * was not found in the database for the given ISBN, or else a Bad Request if Dvd not found for given isbn.
+     * was not found in the database for the given ISBN, or a Conflict response if the Dvd was updated concurrently
+     * since it was read, or else a Bad Request if Dvd not found for given isbn.
      */
-    public Result update() {
+    public CompletionStage<Result> update() {
         JsonNode requestBody = request().body().asJson();
         Dvd dvd;
         if (requestBody == null) {
-            return badRequest(Json.toJson("Empty POST request"));
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Empty POST request")));
         } else {
             dvd = new ObjectMapper().convertValue(requestBody, Dvd.class);
-            try {
-                dvdDao.updateDvd(dvd);
-                return ok(Json.toJson("Successfully updated."));
-            } catch (EntityNotFoundException e) {
-                return notFound(Json.toJson("Dvd not found in the database for given ISBN."));
-            }
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    dvdDao.updateDvd(dvd);
+                    return ok(Json.toJson("Successfully updated."));
+                } catch (EntityNotFoundException e) {
+                    return notFound(Json.toJson("Dvd not found in the database for given ISBN."));
+                } catch (OptimisticLockException e) {
+                    return status(CONFLICT, Json.toJson("Dvd was updated by another request. Please reload " +
+                            "and try again."));
+                }
+            }, dbExecutionContext);
         }
     }
 
@@ -129,19 +239,40 @@ public class DvdController extends Controller {
      * @return - an OK HTTP response if the Dvd was succesfully deleted, otherwise return a Not Found response if a Dvd
      * was not found in the database for the given ISBN, or else a Bad Request if Dvd not found for given isbn.
      */
-    public Result delete(String isbn) {
-        try {
-            Dvd deletedBook = dvdDao.deleteDvd(isbn);
-            Reservation reservation;
-            if((reservation = Reservation.getReservationById(isbn)) != null){
-                reservation.delete();
+    public CompletionStage<Result> delete(String isbn) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                dvdDao.deleteDvd(isbn);
+                return ok(Json.toJson(String.format("Successfully deleted Dvd. Remaining library capacity for Dvd " +
+                                "is %s", String.valueOf(Dvd.MAX_LIBRARY_CAPACITY - dvdDao.getDvdCount()))));
+            } catch (EntityNotFoundException e) {
+                return notFound(Json.toJson("Dvd not found in the database for given ISBN."));
+            }
+        }, dbExecutionContext);
+    }
+
+
+    /**
+     * Method which services and responds to Client request to discard many Dvds at once, e.g. damaged stock.
+     * The request body is a JSON array of the ISBNs of the Dvds to be deleted.
+     * @return - an OK HTTP response with the number of deleted Dvds and the ISBNs for which no Dvd was found, or a
+     * Bad Request response if the request body is not an array of ISBNs.
+     */
+    public CompletionStage<Result> discard() {
+        JsonNode requestBody = request().body().asJson();
+        if (requestBody == null || !requestBody.isArray()) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Request should be an array of " +
+                    "ISBNs.")));
+        }
+        List<String> isbns = new ArrayList<>(requestBody.size());
+        for (JsonNode isbn : requestBody) {
+            if (!isbn.isTextual()) {
+                return CompletableFuture.completedFuture(badRequest(Json.toJson("Request should be an array of " +
+                        "ISBNs.")));
             }
-            ItemTransactionLog.db().delete(ItemTransactionLog.getLogByItem(isbn));
-            return ok(Json.toJson(String.format("Successfully deleted Dvd. Remaining library capacity for Dvd is %s",
-                    String.valueOf(Dvd.MAX_LIBRARY_CAPACITY - dvdDao.getDvdCount()))));
-        } catch (EntityNotFoundException e) {
-            return notFound(Json.toJson("Dvd not found in the database for given ISBN."));
+            isbns.add(isbn.textValue());
         }
+        return CompletableFuture.supplyAsync(() -> ok(Json.toJson(dvdDao.deleteDvds(isbns))), dbExecutionContext);
     }
 
-}
+}
\ No newline at end of file
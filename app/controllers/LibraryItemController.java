@@ -0,0 +1,68 @@
+package controllers;
+
+import dao.DatabaseExecutionContext;
+import dao.LibraryItemDao;
+import models.LibraryItem;
+import play.libs.Json;
+import play.mvc.Controller;
+import play.mvc.Result;
+
+import javax.inject.Inject;
+import javax.persistence.EntityNotFoundException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+
+/**
+ * Controller class which services lookups of Library Items of any type requested by the Client, so that the Client
+ * does not need to know whether an ISBN belongs to a Book or a Dvd.
+ * Extends Controller class of play.mvc
+ */
+public class LibraryItemController extends Controller {
+
+
+    /**
+     * Reference to Library Item Data Access Object to look up Items of any type
+     */
+    LibraryItemDao libraryItemDao;
+
+
+    /**
+     * Execution Context on which blocking Library Item Dao calls are executed
+     */
+    DatabaseExecutionContext dbExecutionContext;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve LibraryItemDao and DatabaseExecutionContext
+     * dependency
+     * @param libraryItemDao
+     * @param dbExecutionContext
+     */
+    @Inject
+    public LibraryItemController(LibraryItemDao libraryItemDao, DatabaseExecutionContext dbExecutionContext) {
+        this.libraryItemDao = libraryItemDao;
+        this.dbExecutionContext = dbExecutionContext;
+    }
+
+
+    /**
+     * Method which services and responds to Client request for retrieving details of an existing Library Item of any
+     * type given its ISBN
+     * @param isbn
+     * @return - an OK HTTP response with Item details, including its itemType, if found, else a Not Found response
+     * with an error message.
+     */
+    public CompletionStage<Result> get(String isbn) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                LibraryItem toReturn = libraryItemDao.getItemByIsbn(isbn);
+                return ok(Json.toJson(toReturn));
+            } catch (EntityNotFoundException e) {
+                return notFound(Json.toJson("Item not found for given ISBN."));
+            }
+        }, dbExecutionContext);
+    }
+
+
+}
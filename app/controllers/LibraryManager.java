@@ -2,14 +2,22 @@ package controllers;
 
 import play.mvc.Result;
 
+import java.util.concurrent.CompletionStage;
+
 public interface LibraryManager {
 
-    Result borrowItem(); // method to handle Item borrowal
+    CompletionStage<Result> borrowItem(); // method to handle Item borrowal
+
+    CompletionStage<Result> returnItem(); // method to handle Item return
+
+    CompletionStage<Result> reserveItem(); // method to reserve Item
+
+    CompletionStage<Result> cancelReservation(); // method to cancel Reservation of Item
 
-    Result returnItem(); // method to handle Item return
+    CompletionStage<Result> borrowItems(); // method to handle borrowal of a batch of Items
 
-    Result reserveItem(); // method to reserve Item
+    CompletionStage<Result> returnItems(); // method to handle return of a batch of Items
 
-    Result report(String generatedOn); // method to get summary of all overdue Item and fees
+    CompletionStage<Result> report(String generatedOn, String mode); // method to get summary of borrowed Items and fees
 
 }
\ No newline at end of file
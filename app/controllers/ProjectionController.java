@@ -0,0 +1,61 @@
+package controllers;
+
+import dao.CirculationProjector;
+import dao.DatabaseExecutionContext;
+import play.libs.Json;
+import play.mvc.Controller;
+import play.mvc.Result;
+
+import javax.inject.Inject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+
+/**
+ * Controller class which lets the Client rebuild the projections of the circulation journal (Item Transaction Logs
+ * and Reservation queues), e.g. after the projection logic has changed.
+ * Extends Controller class of play.mvc
+ */
+public class ProjectionController extends Controller {
+
+
+    /**
+     * Reference to the projector which maintains the projections of the circulation journal
+     */
+    CirculationProjector circulationProjector;
+
+
+    /**
+     * Execution Context on which the blocking rebuild is executed
+     */
+    DatabaseExecutionContext dbExecutionContext;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve CirculationProjector and
+     * DatabaseExecutionContext dependency
+     * @param circulationProjector
+     * @param dbExecutionContext
+     */
+    @Inject
+    public ProjectionController(CirculationProjector circulationProjector,
+                                DatabaseExecutionContext dbExecutionContext) {
+        this.circulationProjector = circulationProjector;
+        this.dbExecutionContext = dbExecutionContext;
+    }
+
+
+    /**
+     * Method which services and responds to Client request for rebuilding the projections from the whole circulation
+     * journal.
+     * @return - an OK HTTP response with the number of events replayed
+     */
+    public CompletionStage<Result> rebuild() {
+        return CompletableFuture.supplyAsync(() -> {
+            int replayed = circulationProjector.rebuild();
+            return ok(Json.toJson(String.format("Successfully rebuilt projections from %s events.", replayed)));
+        }, dbExecutionContext);
+    }
+
+
+}
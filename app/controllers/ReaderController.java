@@ -0,0 +1,201 @@
+package controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dao.DatabaseExecutionContext;
+import dao.LibraryItemDao;
+import dao.ReaderDao;
+import exceptions.ReaderHasLoansException;
+import models.Reader;
+import play.libs.Json;
+import play.mvc.Controller;
+import play.mvc.Result;
+import utils.MyDateUtil;
+
+import javax.inject.Inject;
+import javax.persistence.EntityExistsException;
+import javax.persistence.EntityNotFoundException;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+
+/**
+ * Controller class which services requests about Readers of the Library requested by the Client
+ * Extends Controller class of play.mvc
+ */
+public class ReaderController extends Controller {
+
+
+    /**
+     * Response to requests registering or updating a Reader without a reader Id
+     */
+    private static final String MISSING_READER_ID = "Reader Id is required.";
+
+
+    /**
+     * Reference to Reader Data Access Object to register, look up, update and delete Readers
+     */
+    ReaderDao readerDao;
+
+
+    /**
+     * Reference to Library Item Data Access Object to look up the Items borrowed by a Reader
+     */
+    LibraryItemDao libraryItemDao;
+
+
+    /**
+     * Execution Context on which blocking Dao calls are executed
+     */
+    DatabaseExecutionContext dbExecutionContext;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve ReaderDao, LibraryItemDao and
+     * DatabaseExecutionContext dependency
+     * @param readerDao
+     * @param libraryItemDao
+     * @param dbExecutionContext
+     */
+    @Inject
+    public ReaderController(ReaderDao readerDao, LibraryItemDao libraryItemDao,
+                            DatabaseExecutionContext dbExecutionContext) {
+        this.readerDao = readerDao;
+        this.libraryItemDao = libraryItemDao;
+        this.dbExecutionContext = dbExecutionContext;
+    }
+
+
+    /**
+     * Method which services and responds to Client request for retrieving details of all registered Readers
+     * @return - an OK HTTP response with the details of all Readers.
+     */
+    public CompletionStage<Result> list() {
+        return CompletableFuture.supplyAsync(() -> ok(Json.toJson(readerDao.getAllReaders())), dbExecutionContext);
+    }
+
+
+    /**
+     * Method which services and responds to Client request for retrieving details of an existing Reader given their
+     * Id. Readers are looked up through the Reader cache, so repeated lookups of the same Reader do not query the
+     * database.
+     * @param readerId
+     * @return - an OK HTTP response with Reader details if found, else a Not Found response with an error message.
+     */
+    public CompletionStage<Result> get(String readerId) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ok(Json.toJson(readerDao.getReaderById(readerId)));
+            } catch (EntityNotFoundException e) {
+                return notFound(Json.toJson("Reader not found in the database for given Id."));
+            }
+        }, dbExecutionContext);
+    }
+
+
+    /**
+     * Method which services and responds to Client request for registering a new Reader.
+     * @return - a Created HTTP response if the Reader was successfully registered, or a Forbidden response if a
+     * Reader is already registered under the given Id or name, or a Bad Request response if the request sent by
+     * Client is empty or has no reader Id.
+     */
+    public CompletionStage<Result> save() {
+        JsonNode requestBody = request().body().asJson();
+        if (requestBody == null) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Empty POST request")));
+        }
+        Reader reader = new ObjectMapper().convertValue(requestBody, Reader.class);
+        if (reader.getReaderId() == null) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson(MISSING_READER_ID)));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                readerDao.insertReader(reader);
+                return created(Json.toJson("Reader successfully registered."));
+            } catch (EntityExistsException e) {
+                return forbidden(Json.toJson("Record already exists for the given Reader. Please recheck and enter " +
+                        "details"));
+            }
+        }, dbExecutionContext);
+    }
+
+
+    /**
+     * Method which services and responds to Client request to update details of a Reader in the database.
+     * @return - an OK HTTP response if the Reader was successfully updated, a Not Found response if a Reader was not
+     * found in the database for the given Id, a Forbidden response if another Reader is registered under the given
+     * name, or a Bad Request response if the request sent by Client is empty or has no reader Id.
+     */
+    public CompletionStage<Result> update() {
+        JsonNode requestBody = request().body().asJson();
+        if (requestBody == null) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Empty PUT request.")));
+        }
+        Reader reader = new ObjectMapper().convertValue(requestBody, Reader.class);
+        if (reader.getReaderId() == null) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson(MISSING_READER_ID)));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                readerDao.updateReader(reader);
+                return ok(Json.toJson("Successfully updated."));
+            } catch (EntityNotFoundException e) {
+                return notFound(Json.toJson("Reader not found in the database for given Id."));
+            } catch (EntityExistsException e) {
+                return forbidden(Json.toJson("Another Reader is already registered under the given name. Please " +
+                        "recheck and enter details"));
+            }
+        }, dbExecutionContext);
+    }
+
+
+    /**
+     * Method which services and responds to Client request to delete details of a Reader in the database.
+     * @param readerId
+     * @return - an OK HTTP response if the Reader was successfully deleted, a Not Found response if a Reader was not
+     * found in the database for the given Id, or a Forbidden response if the Reader still has Items borrowed.
+     */
+    public CompletionStage<Result> delete(String readerId) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                readerDao.deleteReader(readerId);
+                return ok(Json.toJson("Successfully deleted Reader."));
+            } catch (EntityNotFoundException e) {
+                return notFound(Json.toJson("Reader not found in the database for given Id."));
+            } catch (ReaderHasLoansException e) {
+                return forbidden(Json.toJson("Reader currently has borrowed Items. Please return all Items before " +
+                        "deleting the Reader."));
+            }
+        }, dbExecutionContext);
+    }
+
+
+    /**
+     * Method which services and responds to Client request for the Items currently borrowed by a Reader, e.g. when
+     * the Reader visits the circulation desk.
+     * @param readerId - Id of Reader
+     * @param asOf - date by which late fees are accrued, or null for today
+     * @return - an OK HTTP response with the borrowed Items of every type, their due dates and accrued late fees,
+     * a Not Found response if the Reader does not exist, or a Bad Request response if the date is malformed.
+     */
+    public CompletionStage<Result> loans(String readerId, String asOf) {
+        MyDateUtil feesAsOf;
+        try {
+            feesAsOf = asOf == null ? new MyDateUtil(LocalDate.now()) : new MyDateUtil(asOf);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Date should be in the format " +
+                    "day/month/year.")));
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ok(Json.toJson(libraryItemDao.getLoansOf(readerId, feesAsOf)));
+            } catch (EntityNotFoundException e) {
+                return notFound(Json.toJson("Reader not found in the database for given Id."));
+            }
+        }, dbExecutionContext);
+    }
+
+
+}
@@ -0,0 +1,77 @@
+package controllers;
+
+import dao.CatalogSearch;
+import dao.DatabaseExecutionContext;
+import play.libs.Json;
+import play.mvc.Controller;
+import play.mvc.Result;
+
+import javax.inject.Inject;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+
+/**
+ * Controller class which services full-text searches of the catalog requested by the Client, so that the Client
+ * does not need to download and filter the full listings of Books and Dvds.
+ * Extends Controller class of play.mvc
+ */
+public class SearchController extends Controller {
+
+
+    /**
+     * Maximum number of Items returned by a single search
+     */
+    static final int MAX_LIMIT = 100;
+
+
+    /**
+     * Reference to the catalog search which answers the queries
+     */
+    CatalogSearch catalogSearch;
+
+
+    /**
+     * Execution Context on which searches are executed, as the database search blocks on a query
+     */
+    DatabaseExecutionContext dbExecutionContext;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve CatalogSearch and DatabaseExecutionContext
+     * dependency
+     * @param catalogSearch
+     * @param dbExecutionContext
+     */
+    @Inject
+    public SearchController(CatalogSearch catalogSearch, DatabaseExecutionContext dbExecutionContext) {
+        this.catalogSearch = catalogSearch;
+        this.dbExecutionContext = dbExecutionContext;
+    }
+
+
+    /**
+     * Method which services and responds to Client request for searching Library Items of every type by the words
+     * of their title, section, authors, publisher, actors and producer. Every word of the query also matches the
+     * words it is a prefix of.
+     * Executed on the database execution context, as the configured search may query the database.
+     * @param query - words to be searched for
+     * @param limit - maximum number of Items to be returned, capped at MAX_LIMIT
+     * @return - an OK HTTP response with the matching Items, most relevant first, a Bad Request response if the query
+     * is empty, or a Service Unavailable response while the search index is being built.
+     */
+    public CompletionStage<Result> search(String query, int limit) {
+        if (query == null || query.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Search query should not be empty.")));
+        }
+        if (!catalogSearch.isReady()) {
+            return CompletableFuture.completedFuture(status(SERVICE_UNAVAILABLE,
+                    Json.toJson("Search index is being built. Please try again.")));
+        }
+        int searchLimit = limit <= 0 ? MAX_LIMIT : Math.min(limit, MAX_LIMIT);
+        return CompletableFuture.supplyAsync(() -> ok(Json.toJson(catalogSearch.search(query, searchLimit))),
+                dbExecutionContext);
+    }
+
+
+}
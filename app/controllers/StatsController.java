@@ -0,0 +1,67 @@
+package controllers;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dao.CatalogCache;
+import dao.OptimisticLockRetry;
+import play.libs.Json;
+import play.mvc.Controller;
+import play.mvc.Result;
+
+import javax.inject.Inject;
+
+
+/**
+ * Controller class which exposes runtime counters of the Library Manager (catalog cache statistics and
+ * optimistic locking conflicts) to the Client for monitoring purposes.
+ * Extends Controller class of play.mvc
+ */
+public class StatsController extends Controller {
+
+
+    /**
+     * Reference to the catalog cache whose statistics are reported
+     */
+    CatalogCache catalogCache;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve CatalogCache dependency
+     * @param catalogCache
+     */
+    @Inject
+    public StatsController(CatalogCache catalogCache) {
+        this.catalogCache = catalogCache;
+    }
+
+
+    /**
+     * Method which services and responds to Client request for the current runtime counters.
+     * Only reads in-memory counters, hence it is not executed on the database execution context.
+     * @return - an OK HTTP response with a JSON object containing cache hit, miss and eviction counts per Item type
+     * and for Readers, and the number of optimistic locking conflicts.
+     */
+    public Result stats() {
+        ObjectNode result = Json.newObject();
+        ObjectNode cache = result.putObject("cache");
+        putCacheStats(cache.putObject("book"), catalogCache.getBookStats());
+        putCacheStats(cache.putObject("dvd"), catalogCache.getDvdStats());
+        putCacheStats(cache.putObject("reader"), catalogCache.getReaderStats());
+        result.put("optimisticLockConflicts", OptimisticLockRetry.getConflictCount());
+        return ok(result);
+    }
+
+
+    /**
+     * Private utility method to write the statistics of a cache into a JSON object
+     * @param node - JSON object to be written into
+     * @param stats - statistics of the cache
+     */
+    private static void putCacheStats(ObjectNode node, CacheStats stats) {
+        node.put("hits", stats.hitCount());
+        node.put("misses", stats.missCount());
+        node.put("evictions", stats.evictionCount());
+        node.put("hitRate", stats.hitRate());
+    }
+
+}
\ No newline at end of file
@@ -1,21 +1,35 @@
 package controllers;
 
+import akka.japi.Pair;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import akka.util.ByteStringBuilder;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import dao.BookDao;
+import dao.CirculationDao;
+import dao.CirculationRequest;
+import dao.DatabaseExecutionContext;
 import dao.DvdDao;
-import io.ebean.Ebean;
-import models.*;
+import dao.ReportDao;
+import dao.ReportEntry;
+import exceptions.ItemNotBorrowedException;
+import exceptions.ItemUnavailableException;
+import exceptions.ReaderNotFoundException;
+import play.Logger;
 import play.libs.Json;
 import play.mvc.Controller;
 import play.mvc.Result;
 import utils.MyDateUtil;
 
 import javax.inject.Inject;
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.OptimisticLockException;
 import java.math.BigDecimal;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 
 /**
@@ -25,6 +39,21 @@ import java.util.Set;
  */
 public class WestminsterLibraryManager extends Controller implements LibraryManager {
 
+    /**
+     * Number of Items read from the database per page of the report, each of which is sent as one chunk
+     */
+    private static final int REPORT_PAGE_SIZE = 200;
+
+    /**
+     * Response to requests with a malformed or non-existent date
+     */
+    private static final String INVALID_DATE = "Date should be a valid date in the format day/month/year.";
+
+    /**
+     * Response to requests which leave out the ISBN, the Reader Id or the date
+     */
+    private static final String MISSING_FIELD = "ISBN, Reader Id and date are required.";
+
     /**
      * Reference to Book Data Access Object to pass instructions and execute Book-related CRUD operations
      */
@@ -35,17 +64,40 @@ public class WestminsterLibraryManager extends Controller implements LibraryMana
      */
     DvdDao dvdDao;
 
+    /**
+     * Reference to Circulation Data Access Object to execute Item borrowal as a single transaction
+     */
+    CirculationDao circulationDao;
+
+    /**
+     * Reference to Report Data Access Object to stream the report on borrowed items
+     */
+    ReportDao reportDao;
 
     /**
-     * Constructor method. Uses Guice dependency injection to resolve BookDao and DvdDao dependency
+     * Execution Context on which blocking Dao calls are executed
+     */
+    DatabaseExecutionContext dbExecutionContext;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve BookDao, DvdDao, CirculationDao, ReportDao and
+     * DatabaseExecutionContext dependency
      * @param bookDaoImpl - Book Dao Implementation instance
      * @param dvdDaoImpl - Dvd Dao Implementation instance
+     * @param circulationDaoImpl - Circulation Dao Implementation instance
+     * @param reportDaoImpl - Report Dao Implementation instance
+     * @param dbExecutionContext - Execution Context for blocking database calls
      */
     @Inject
-    public WestminsterLibraryManager(BookDao bookDaoImpl, DvdDao dvdDaoImpl) {
+    public WestminsterLibraryManager(BookDao bookDaoImpl, DvdDao dvdDaoImpl, CirculationDao circulationDaoImpl,
+                                     ReportDao reportDaoImpl, DatabaseExecutionContext dbExecutionContext) {
         super();
         this.bookDao = bookDaoImpl;
         this.dvdDao = dvdDaoImpl;
+        this.circulationDao = circulationDaoImpl;
+        this.reportDao = reportDaoImpl;
+        this.dbExecutionContext = dbExecutionContext;
     }
 
 
@@ -54,109 +106,94 @@ public class WestminsterLibraryManager extends Controller implements LibraryMana
      * @return - returns an OK HTTP response to Client if logic for item being borrowed is successfully executed.
      */
     @Override
-    public Result borrowItem() {
+    public CompletionStage<Result> borrowItem() {
 
         JsonNode requestBody = request().body().asJson();
 
         if (requestBody == null) {
 
-            return badRequest(Json.toJson("Empty POST request."));
-
-        } else {
-
-            String type = requestBody.get("type").textValue();
-            String isbn = requestBody.get("isbn").textValue();
-            String readerId = requestBody.get("readerId").textValue();
-            String borrowedOn = requestBody.get("borrowedOn").textValue();
-
-            LibraryItem item;
-            Reader reader = new Reader();
-
-            switch (type){
-                case("Book"):
-                    item = bookDao.getBookByIsbn(isbn);
-                    reader.setReaderId(readerId);
-                    item.setCurrentReader(reader);
-                    item.setBorrowedOn(new MyDateUtil(borrowedOn));
-                    bookDao.updateBook((Book)item);
-                    break;
-                case("Dvd"):
-                    item = dvdDao.getDvdByIsbn(isbn);
-                    reader.setReaderId(readerId);
-                    item.setCurrentReader(reader);
-                    item.setBorrowedOn(new MyDateUtil(borrowedOn));
-                    dvdDao.updateDvd((Dvd)item);
-                    break;
-            }
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Empty POST request.")));
+
+        }
 
-            ItemTransactionLog log = ItemTransactionLog.getLogByItem(isbn);
-            log.incrementNoOfTimesBorrowed(); // Increase borrow count in ItemTransactionLog
-            log.update();
-
-            // Removing reader from list of reservations, if reader has made reservation for item before
-            Reservation reservation = Reservation.getReservationById(isbn);
-            if(reservation!=null){
-                if(reservation.getListOfReaders().contains(readerId)){
-                    reservation.getListOfReaders().remove(readerId);
-                    reservation.update();
-                }
+        String isbn = requestBody.path("isbn").textValue();
+        String readerId = requestBody.path("readerId").textValue();
+        String date = requestBody.path("borrowedOn").textValue();
+        if (isbn == null || readerId == null || date == null) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson(MISSING_FIELD)));
+        }
+        MyDateUtil borrowedOn;
+        try {
+            borrowedOn = new MyDateUtil(date);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson(INVALID_DATE)));
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+
+            try {
+                circulationDao.borrowItem(isbn, readerId, borrowedOn);
+            } catch (EntityNotFoundException e) {
+                return notFound(Json.toJson("Item not found in the database for given ISBN."));
+            } catch (ItemUnavailableException e) {
+                return forbidden(Json.toJson("Item is currently borrowed by another reader. Please reserve the item " +
+                        "instead."));
+            } catch (ReaderNotFoundException e) {
+                return notFound(Json.toJson("Reader not found in the database for given Id."));
             }
 
             return ok(Json.toJson("Item successfully borrowed. Please return the item within the overdue period to avoid " +
                     "any late item return fees."));
 
-        }
+        }, dbExecutionContext);
     }
 
 
     /**
      * Method which services business logic related to Item return.
-     * @return - returns an OK HTTP response with any late item return fee if needed to be paid off by Reader.
+     * @return - returns an OK HTTP response with any late item return fee if needed to be paid off by Reader, or a
+     * Forbidden response if the Item is not currently borrowed.
      */
     @Override
-    public Result returnItem() {
+    public CompletionStage<Result> returnItem() {
 
         JsonNode requestBody = request().body().asJson();
 
         if (requestBody == null) {
 
-            return badRequest("Empty POST request.");
-
-        } else {
-
-            String type = requestBody.get("type").textValue();
-            String isbn = requestBody.get("isbn").textValue();
-            MyDateUtil returnedOn = new MyDateUtil(requestBody.get("returnedOn").textValue());
-
-            LibraryItem item;
-            BigDecimal dueFee = null;
-
-            switch (type){
-                case("Book"):
-                    item = bookDao.getBookByIsbn(isbn);
-                    ItemTransactionLog.updateOnItemReturn(item,returnedOn); // Update ItemTransactionLog that item
-                                                                            // has been returned by user
-                    dueFee = item.calculateLateFee(returnedOn, Book.MAX_BORROWAL_PERIOD);
-                    item.setCurrentReader(null); // Reset current reader attribute value
-                    item.setBorrowedOn(null); // Reset borrowed on attribute value
-                    bookDao.updateBook((Book)item);
-
-                    break;
-                case("Dvd"):
-                    item = dvdDao.getDvdByIsbn(isbn);
-                    ItemTransactionLog.updateOnItemReturn(item,returnedOn); // Update ItemTransactionLog that item
-                                                                            // has been returned by user
-                    dueFee = item.calculateLateFee(returnedOn, Dvd.MAX_BORROWAL_PERIOD);
-                    item.setCurrentReader(null); // Reset current reader attribute value
-                    item.setBorrowedOn(null); // Reset borrowed on attribute value
-                    dvdDao.updateDvd((Dvd)item);
-
-                    break;
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Empty POST request.")));
+
+        }
+
+        String isbn = requestBody.path("isbn").textValue();
+        String date = requestBody.path("returnedOn").textValue();
+        if (isbn == null || date == null) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson(MISSING_FIELD)));
+        }
+        MyDateUtil returnedOn;
+        try {
+            returnedOn = new MyDateUtil(date);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson(INVALID_DATE)));
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+
+            BigDecimal dueFee;
+
+            try {
+                dueFee = circulationDao.returnItem(isbn, returnedOn);
+            } catch (EntityNotFoundException e) {
+                return notFound(Json.toJson("Item not found in the database for given ISBN."));
+            } catch (ItemNotBorrowedException e) {
+                return forbidden(Json.toJson("Item is not currently borrowed, and cannot be returned."));
+            } catch (OptimisticLockException e) {
+                return status(CONFLICT, Json.toJson("Item is being updated by another request. Please try again."));
             }
 
             return ok(Json.toJson(String.format("Successfully returned book. Due fee is $%s",dueFee.toString())));
 
-        }
+        }, dbExecutionContext);
     }
 
 
@@ -165,84 +202,278 @@ public class WestminsterLibraryManager extends Controller implements LibraryMana
      * @return - an OK HTTP result with the estimated waiting time based on the reservation queue
      */
     @Override
-    public Result reserveItem() {
+    public CompletionStage<Result> reserveItem() {
         JsonNode requestBody = request().body().asJson();
-        String type = requestBody.get("type").textValue();
-        String isbn = requestBody.get("isbn").textValue();
-        String readerId = requestBody.get("readerId").textValue();
 
-        Reservation reservation = Reservation.getReservationById(isbn);
-        reservation.getListOfReaders().add(readerId);
-        reservation.update();
+        if (requestBody == null) {
+
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Empty PUT request.")));
 
-        int avgBorrowalPeriod = ItemTransactionLog.getLogByItem(isbn).getAverageBorrowalPeriod();
-        int noOfReadersInQueue = reservation.getListOfReaders().size();
+        }
 
-        LibraryItem item;
-        ObjectNode result = Json.newObject();
-        if (type.equals("Book")) {
-            Book book = bookDao.getBookByIsbn(isbn);
-        } else if(type.equals("Dvd")) {
-            Dvd dvd = dvdDao.getDvdByIsbn(isbn);
+        String isbn = requestBody.path("isbn").textValue();
+        String readerId = requestBody.path("readerId").textValue();
+        if (isbn == null || readerId == null) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson(MISSING_FIELD)));
         }
 
-        return ok(Json.toJson(String.format("Successfully reserved item. Estimated waiting time is %s days.",
-                (noOfReadersInQueue * avgBorrowalPeriod))));
+        return CompletableFuture.supplyAsync(() -> {
+
+            int estimatedWaitingTime;
+
+            try {
+                estimatedWaitingTime = circulationDao.reserveItem(isbn, readerId);
+            } catch (EntityNotFoundException e) {
+                return notFound(Json.toJson("Item not found in the database for given ISBN."));
+            }
+
+            return ok(Json.toJson(String.format("Successfully reserved item. Estimated waiting time is %s days.",
+                    estimatedWaitingTime)));
 
+        }, dbExecutionContext);
+    }
+
+
+    /**
+     * Method which services business logic related to cancelling the Reservations of an Item placed by a Reader.
+     * @return - an OK HTTP result once the cancellation has been recorded
+     */
+    @Override
+    public CompletionStage<Result> cancelReservation() {
+        JsonNode requestBody = request().body().asJson();
+
+        if (requestBody == null) {
+
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Empty PUT request.")));
+
+        }
+
+        String isbn = requestBody.path("isbn").textValue();
+        String readerId = requestBody.path("readerId").textValue();
+        if (isbn == null || readerId == null) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson(MISSING_FIELD)));
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+
+            try {
+                circulationDao.cancelReservation(isbn, readerId);
+            } catch (EntityNotFoundException e) {
+                return notFound(Json.toJson("Item not found in the database for given ISBN."));
+            }
+
+            return ok(Json.toJson("Successfully cancelled reservation."));
+
+        }, dbExecutionContext);
+    }
+
+    /**
+     * Method which services business logic related to a batch of Items being borrowed at the circulation desk.
+     * The request body is a JSON array of entries with the isbn, readerId and date of each Item.
+     * @return - an OK HTTP response with the outcome for each Item, or a Bad Request response if the request body
+     * is not a non-empty array of valid entries.
+     */
+    @Override
+    public CompletionStage<Result> borrowItems() {
+
+        List<CirculationRequest> requests = parseBatch(request().body().asJson(), true);
+
+        if (requests == null) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Request should be a non-empty array " +
+                    "of items with isbn, readerId and date.")));
+        }
+
+        return CompletableFuture.supplyAsync(() -> ok(Json.toJson(circulationDao.borrowItems(requests))),
+                dbExecutionContext);
+    }
+
+
+    /**
+     * Method which services business logic related to a batch of Items being returned at the circulation desk.
+     * The request body is a JSON array of entries with the isbn and date of each Item.
+     * @return - an OK HTTP response with the outcome and late item return fee for each Item and the total fees, or a
+     * Bad Request response if the request body is not a non-empty array of valid entries.
+     */
+    @Override
+    public CompletionStage<Result> returnItems() {
+
+        List<CirculationRequest> requests = parseBatch(request().body().asJson(), false);
+
+        if (requests == null) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Request should be a non-empty array " +
+                    "of items with isbn and date.")));
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return ok(Json.toJson(circulationDao.returnItems(requests)));
+            } catch (OptimisticLockException e) {
+                return status(CONFLICT, Json.toJson("Items are being updated by another request. Please try again."));
+            }
+        }, dbExecutionContext);
+    }
+
+
+    /**
+     * Private utility method to parse the entries of a batch circulation request
+     * @param requestBody - JSON array of entries
+     * @param readerRequired - whether each entry must name the Reader borrowing the Item
+     * @return - the parsed entries, or null if the request body is not a non-empty array of valid entries
+     */
+    private static List<CirculationRequest> parseBatch(JsonNode requestBody, boolean readerRequired) {
+        if (requestBody == null || !requestBody.isArray() || requestBody.size() == 0) {
+            return null;
+        }
+        List<CirculationRequest> requests = new ArrayList<>(requestBody.size());
+        for (JsonNode entry : requestBody) {
+            String isbn = entry.path("isbn").textValue();
+            String readerId = entry.path("readerId").textValue();
+            String date = entry.path("date").textValue();
+            if (isbn == null || date == null || (readerRequired && readerId == null)) {
+                return null;
+            }
+            try {
+                requests.add(new CirculationRequest(isbn, readerId, new MyDateUtil(date)));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return requests;
     }
 
     /**
      * Method that services the business logic for reporting on items borrowed, and their status
      * (number of days which they are overdue by), and late return fee estimates.
+     * The report is streamed to the Client as a chunked response, one page of Items at a time, so that it is never
+     * held in memory as a whole. The next page is only read once the Client has received the previous one, and each
+     * page is read by a short query on the database execution context, so a slow Client holds neither a database
+     * thread nor a connection while it downloads. If the report fails part way, the stream is failed so that the
+     * chunked response is aborted, instead of being ended as if the report were complete.
      * @param generateFor - the date for which the report needs to be generated for
+     * @param mode - "all" to report on all borrowed items, or "overdue" to only report on overdue items, with
+     *             overdue days and fees computed by the database
      * @return - a custom JSON object, with the overude items, their isbn, title, date on which they were borrowed,
      * the number of days by which they are overdue, and the late return fee
      */
     @Override
-    public Result report(String generateFor) {
+    public CompletionStage<Result> report(String generateFor, String mode) {
 
-        Set<Book> setOfBook = Ebean.find(Book.class).where().not().eq("borrowed_on",null).findSet();
-        Set<Dvd> setOfDvd = Ebean.find(Dvd.class).where().not().eq("borrowed_on",null).findSet();
+        if (!mode.equals("all") && !mode.equals("overdue")) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson("Report mode should be either all " +
+                    "or overdue.")));
+        }
+
+        MyDateUtil reportDate;
+        try {
+            reportDate = new MyDateUtil(generateFor);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(badRequest(Json.toJson(INVALID_DATE)));
+        }
+        boolean overdueOnly = mode.equals("overdue");
 
-        Set<LibraryItem> libraryItems = new LinkedHashSet<>();
-        libraryItems.addAll(setOfBook);
-        libraryItems.addAll(setOfDvd);
+        Source<ByteString, ?> report = Source.single(ByteString.fromString("{\"items\":["))
+                .concat(Source.unfoldAsync(ReportCursor.FIRST,
+                        cursor -> nextReportPage(cursor, reportDate, overdueOnly)))
+                .concat(Source.single(ByteString.fromString("]}")));
 
-        ObjectNode result = Json.newObject();
-        ArrayNode arrayOfItems = result.putArray("items");
+        return CompletableFuture.completedFuture(ok().chunked(report).as("application/json"));
 
-        for(LibraryItem item: libraryItems){
+    }
 
-            ObjectNode itemNode = Json.newObject();
 
-            itemNode.put("isbn",item.getISBN());
-            itemNode.put("title",item.getTitle());
+    /**
+     * Private utility method to read the page of the report following a cursor on the database execution context,
+     * and serialize its Items as one chunk of the "items" array of the report
+     * @param cursor - position of the page in the report
+     * @param reportDate - the date for which the report is generated
+     * @param overdueOnly - whether only overdue items are reported
+     * @return - the chunk together with the cursor of the following page, or nothing once the last page was read
+     */
+    private CompletionStage<Optional<Pair<ReportCursor, ByteString>>> nextReportPage(ReportCursor cursor,
+                                                                                   MyDateUtil reportDate,
+                                                                                   boolean overdueOnly) {
+        if (cursor.isComplete()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return CompletableFuture.supplyAsync(() -> overdueOnly
+                ? reportDao.findOverdueReportPage(reportDate, cursor.getAfterIsbn(), REPORT_PAGE_SIZE)
+                : reportDao.findReportPage(reportDate, cursor.getAfterIsbn(), REPORT_PAGE_SIZE), dbExecutionContext)
+                .thenApply(page -> {
+                    ByteStringBuilder chunk = new ByteStringBuilder();
+                    for (ReportEntry entry : page) {
+                        if (cursor.getAfterIsbn() != null || chunk.length() > 0) {
+                            chunk.putByte((byte) ',');
+                        }
+                        chunk.append(ByteString.fromString(Json.stringify(Json.toJson(entry))));
+                    }
+                    return Optional.of(Pair.create(cursor.next(page, REPORT_PAGE_SIZE), chunk.result()));
+                })
+                .whenComplete((next, e) -> {
+                    if (e != null) {
+                        Logger.error("Failed to stream report", e);
+                    }
+                });
+    }
 
-            if(item.getBorrowedOn() == null) {
-                itemNode.put("borrowedOn","");
-            } else{
-                itemNode.put("borrowedOn",item.getBorrowedOn().toString());
-            }
 
-            if(item instanceof Book){
-                itemNode.put("overdueBy", MyDateUtil.getDifference(new MyDateUtil(generateFor),
-                        item.getBorrowedOn()) - Book.MAX_BORROWAL_PERIOD);
-                itemNode.put("fee", item.calculateLateFee(new MyDateUtil(generateFor),
-                        Book.MAX_BORROWAL_PERIOD));
-
-            } else if(item instanceof Dvd){
-                itemNode.put("overdueBy", MyDateUtil.getDifference(new MyDateUtil(generateFor),
-                        item.getBorrowedOn())- Dvd.MAX_BORROWAL_PERIOD);
-                itemNode.put("fee", item.calculateLateFee(new MyDateUtil(generateFor),
-                        Dvd.MAX_BORROWAL_PERIOD));
-            }
+    /**
+     * Position of a page in the report on borrowed items, which continues after the last ISBN of the previous page
+     */
+    private static final class ReportCursor {
+
+        /**
+         * Cursor of the first page
+         */
+        static final ReportCursor FIRST = new ReportCursor(null, false);
+
+        /**
+         * ISBN of the last Item of the previous page, or null for the first page
+         */
+        private final String afterIsbn;
+
+        /**
+         * Whether the last page has already been read
+         */
+        private final boolean complete;
+
+        /**
+         * Constructor method
+         * @param afterIsbn
+         * @param complete
+         */
+        private ReportCursor(String afterIsbn, boolean complete) {
+            this.afterIsbn = afterIsbn;
+            this.complete = complete;
+        }
 
-            arrayOfItems.add(itemNode);
+        /**
+         * Getter for ISBN of the last Item of the previous page
+         * @return
+         */
+        String getAfterIsbn() {
+            return afterIsbn;
+        }
 
+        /**
+         * Getter for whether the last page has already been read
+         * @return
+         */
+        boolean isComplete() {
+            return complete;
         }
 
-        return ok(result);
+        /**
+         * Method to get the cursor of the page following a page, which is complete if the page was not full
+         * @param page - Items of the page which was read at this cursor
+         * @param pageSize - number of Items requested per page
+         * @return
+         */
+        ReportCursor next(List<ReportEntry> page, int pageSize) {
+            return page.isEmpty() ? new ReportCursor(afterIsbn, true)
+                    : new ReportCursor(page.get(page.size() - 1).getIsbn(), page.size() < pageSize);
+        }
 
     }
 
-}
\ No newline at end of file
+
+}
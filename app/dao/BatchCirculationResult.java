@@ -0,0 +1,57 @@
+package dao;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Outcome of a batch circulation request, with one result per entry in request order and the total of all late
+ * item return fees. Returned to the Client as the body of the batch borrow and return responses.
+ */
+public class BatchCirculationResult {
+
+
+    /**
+     * Results of the individual entries, in request order
+     */
+    private final List<CirculationResult> results = new ArrayList<>();
+
+
+    /**
+     * Sum of the late item return fees of all returned Items
+     */
+    private BigDecimal totalFees = BigDecimal.ZERO;
+
+
+    /**
+     * Getter for results
+     * @return
+     */
+    public List<CirculationResult> getResults() {
+        return results;
+    }
+
+
+    /**
+     * Getter for total fees
+     * @return
+     */
+    public BigDecimal getTotalFees() {
+        return totalFees;
+    }
+
+
+    /**
+     * Method to append the result of the next entry, adding its fee (if any) to the total
+     * @param result
+     */
+    void add(CirculationResult result) {
+        results.add(result);
+        if (result.getFee() != null) {
+            totalFees = totalFees.add(result.getFee());
+        }
+    }
+
+
+}
@@ -6,6 +6,9 @@ import models.Book;
 
 import javax.persistence.EntityExistsException;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.OptimisticLockException;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.Set;
 
 
@@ -23,12 +26,20 @@ public interface BookDao {
 
     Set<Book> getAllBooks();
 
+    CatalogSnapshot getAllBooksSnapshot();
+
+    Page<Book> findPage(PageCursor after, String sort, int limit);
+
     Book getBookByIsbn(String isbn) throws EntityNotFoundException;
 
     void insertBook(Book book) throws MaximumCapacityException, EntityExistsException;
 
-    void updateBook(Book book) throws EntityNotFoundException;
+    BulkInsertResult insertBooks(Iterator<Book> books);
+
+    void updateBook(Book book) throws EntityNotFoundException, OptimisticLockException;
+
+    void deleteBook(String isbn) throws EntityNotFoundException;
 
-    Book deleteBook(String isbn) throws EntityNotFoundException;
+    BulkDeleteResult deleteBooks(Collection<String> isbns);
 
 }
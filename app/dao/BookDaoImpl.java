@@ -2,13 +2,19 @@ package dao;
 
 import exceptions.MaximumCapacityException;
 import io.ebean.Ebean;
+import io.ebean.Transaction;
 import models.Book;
 import models.ItemTransactionLog;
-import models.Reservation;
+import models.LibraryItem;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.persistence.EntityExistsException;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.OptimisticLockException;
+import java.sql.Date;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.Set;
 
 
@@ -23,19 +29,45 @@ public class BookDaoImpl implements BookDao {
 
 
     /**
-     * Default constructor required by Guice
+     * Cache in front of lookups of Book by ISBN
      */
-    public BookDaoImpl() {
+    private final CatalogCache catalogCache;
+
+
+    /**
+     * Inventory counters, used to enforce and report the library's capacity for Books
+     */
+    private final InventoryDao inventoryDao;
+
+
+    /**
+     * Catalog search, updated after every write to a Book
+     */
+    private final CatalogSearch catalogSearch;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve CatalogCache, InventoryDao and CatalogSearch
+     * dependency
+     * @param catalogCache
+     * @param inventoryDao
+     * @param catalogSearch
+     */
+    @Inject
+    public BookDaoImpl(CatalogCache catalogCache, InventoryDao inventoryDao, CatalogSearch catalogSearch) {
+        this.catalogCache = catalogCache;
+        this.inventoryDao = inventoryDao;
+        this.catalogSearch = catalogSearch;
     }
 
 
     /**
-     * Getter for Book count from database
+     * Getter for Book count, read from the inventory counter of Books instead of counting them in the database
      * @return
      */
     @Override
     public int getBookCount() {
-        return Ebean.find(Book.class).findCount();
+        return inventoryDao.getItemCount(Book.ITEM_TYPE);
     }
 
 
@@ -49,6 +81,30 @@ public class BookDaoImpl implements BookDao {
     }
 
 
+    /**
+     * Getter to retrieve a pre-serialized snapshot of all Books, which is only reloaded from the database after
+     * a Book has been written to.
+     * @return
+     */
+    @Override
+    public CatalogSnapshot getAllBooksSnapshot() {
+        return catalogCache.getBookListing(this::getAllBooks);
+    }
+
+
+    /**
+     * Getter to retrieve a bounded page of Books using keyset pagination.
+     * @param after - cursor of the page to be fetched, or null for the first page
+     * @param sort - sort order of the first page, either by isbn or by title
+     * @param limit - maximum number of Books in the page
+     * @return
+     */
+    @Override
+    public Page<Book> findPage(PageCursor after, String sort, int limit) {
+        return Page.find(Book.class, after, sort, limit);
+    }
+
+
     /**
      * Getter to retrieve details of a particular Book by quering database using Book ISBN.
      * @param isbn
@@ -57,7 +113,7 @@ public class BookDaoImpl implements BookDao {
      */
     @Override
     public Book getBookByIsbn(String isbn) throws EntityNotFoundException{
-        Book toReturn = Ebean.find(Book.class).where().idEq(isbn).findOne();
+        Book toReturn = catalogCache.getBook(isbn, key -> Ebean.find(Book.class).where().idEq(key).findOne());
         if(toReturn == null)
             throw new EntityNotFoundException("Failed to find Book for ISBN given.");
         else
@@ -66,57 +122,135 @@ public class BookDaoImpl implements BookDao {
 
 
     /**
-     * Method to insert details of new Book into database
+     * Method to insert details of new Book into database. Capacity is reserved on the inventory counter, and the
+     * Book and its Transaction Log are inserted, in one transaction.
      * @param book
      * @throws MaximumCapacityException - when library has reached maximum capacity of 100 Books
      * @throws EntityExistsException - when database already has a record of the given Book
      */
     @Override
     public void insertBook(Book book) throws MaximumCapacityException, EntityExistsException {
-        if(getBookCount()<=Book.MAX_LIBRARY_CAPACITY){
-            if(Ebean.find(Book.class).where().idEq(book.getISBN()).findCount()==0) {
-                book.save();
-                ItemTransactionLog.initLogForItem(book);
-                Reservation.initReservationsForItem(book);
-            }
-            else {
+        try (Transaction transaction = Ebean.beginTransaction()) {
+            inventoryDao.reserveCapacity(Book.ITEM_TYPE);
+            // ISBNs are unique across all Library Item types, which share the library_item table
+            if(Ebean.find(LibraryItem.class).where().idEq(book.getISBN()).findCount()!=0) {
                 throw new EntityExistsException("Failed to create new Book. Book already exists for given ISBN.");
             }
+            book.save();
+            ItemTransactionLog.initLogForItem(book);
+            transaction.commit();
         }
-        else {
-            throw new MaximumCapacityException("Library has reached maximum Book capacity. " +
-                    "Please discard old/damaged books.");
-        }
+        onBookInserted(book);
     }
 
 
     /**
-     * Method to update the details of existing Book in the database.
+     * Method to import a stream of new Books into the database. Books are inserted together with their Transaction
+     * Logs in batches of BulkInserter.CHUNK_SIZE, one transaction per batch, and capacity for each batch is reserved
+     * on the inventory counter in the same transaction. Books which already exist, or which exceed the library's
+     * capacity, are skipped and reported.
+     * @param books - stream of Books, consumed lazily
+     * @return - summary of inserted and skipped Books
+     */
+    @Override
+    public BulkInsertResult insertBooks(Iterator<Book> books) {
+        return BulkInserter.insertAll(books, Book.ITEM_TYPE, inventoryDao, this::onBookInserted);
+    }
+
+
+    /**
+     * Method to update the details of existing Book in the database, with a single conditional update statement.
+     * Items of every type share the library_item table, so the statement only matches a row of the Book type, and
+     * the version read by the client unless none was given. Whether the Book exists is only queried if no row was
+     * updated, to tell a missing Book apart from one which was updated concurrently. Every catalog field is written,
+     * so the Book given is indexed as it is now stored.
      * @param book
      * @throws EntityNotFoundException - when a Book is not found for the given ISBN in the database.
+     * @throws OptimisticLockException - when the Book was updated by another request since it was read.
      */
     @Override
-    public void updateBook(Book book) throws EntityNotFoundException {
-        if(Ebean.find(Book.class).where().idEq(book.getISBN()).findCount()==0) {
-            throw new EntityNotFoundException("Failed to update Book. Book not found for given ISBN.");
-        }
-        else {
-            book.update();
+    public void updateBook(Book book) throws EntityNotFoundException, OptimisticLockException {
+        try {
+            int updated = Ebean.createSqlUpdate("update library_item set title = :title, section = :section," +
+                    " pub_date = :pubDate, authors = cast(:authors as varchar[]), publisher = :publisher," +
+                    " no_of_pages = :noOfPages, version = version + 1" +
+                    " where isbn = :isbn and item_type = :itemType and (:version = 0 or version = :version)")
+                    .setParameter("title", book.getTitle())
+                    .setParameter("section", book.getSection())
+                    .setParameter("pubDate", book.getPubDate() == null ? null
+                            : Date.valueOf(book.getPubDate().toLocalDate()))
+                    .setParameter("authors", SqlArrays.toLiteral(book.getAuthors()))
+                    .setParameter("publisher", book.getPublisher())
+                    .setParameter("noOfPages", book.getNoOfPages())
+                    .setParameter("isbn", book.getISBN())
+                    .setParameter("itemType", Book.ITEM_TYPE)
+                    .setParameter("version", book.getVersion())
+                    .execute();
+            if (updated == 0) {
+                if (Ebean.find(Book.class).where().idEq(book.getISBN()).findCount() == 0) {
+                    throw new EntityNotFoundException("Failed to update Book. Book not found for given ISBN.");
+                }
+                throw new OptimisticLockException("Failed to update Book. Book was updated by another request.");
+            }
+            catalogSearch.index(book);
+        } finally {
+            catalogCache.invalidateBook(book.getISBN());
         }
     }
 
 
     /**
-     * Method to delete details of a Book from the database.
+     * Method to delete details of a Book from the database, with a single delete statement whose affected row count
+     * tells whether the Book existed. The Book's Transaction Log and Reservations are removed by the same statement,
+     * through foreign keys which cascade on delete, and the inventory counter is decremented in the same
+     * transaction.
      * @param isbn
-     * @return
      * @throws EntityNotFoundException - when a Book is not found for the given ISBN in the database.
      */
     @Override
-    public Book deleteBook(String isbn) throws EntityNotFoundException {
-        Book book = getBookByIsbn(isbn);
-        book.delete();
-        return book;
+    public void deleteBook(String isbn) throws EntityNotFoundException {
+        try (Transaction transaction = Ebean.beginTransaction()) {
+            if(Ebean.find(Book.class).where().idEq(isbn).delete()==0) {
+                throw new EntityNotFoundException("Failed to delete Book. Book not found for given ISBN.");
+            }
+            inventoryDao.releaseCapacity(Book.ITEM_TYPE, 1);
+            transaction.commit();
+        }
+        onBookDeleted(isbn);
+    }
+
+
+    /**
+     * Method to discard many Books at once, e.g. damaged stock, in a single transaction. Books are deleted in chunks
+     * of BulkDeleter.CHUNK_SIZE ISBNs per statement, together with their Transaction Logs and Reservations.
+     * @param isbns - ISBNs of Books to be deleted
+     * @return - summary of deleted Books and of ISBNs for which no Book was found
+     */
+    @Override
+    public BulkDeleteResult deleteBooks(Collection<String> isbns) {
+        return BulkDeleter.deleteAll(Book.ITEM_TYPE, isbns, inventoryDao, this::onBookDeleted);
+    }
+
+
+    /**
+     * Private utility method to discard the cached copy of a Book and add it to the catalog search, once its insert
+     * has been committed
+     * @param book
+     */
+    private void onBookInserted(Book book) {
+        catalogCache.invalidateBook(book.getISBN());
+        catalogSearch.index(book);
+    }
+
+
+    /**
+     * Private utility method to discard the cached copy of a Book and remove it from the catalog search, once its
+     * delete has been committed
+     * @param isbn
+     */
+    private void onBookDeleted(String isbn) {
+        catalogCache.invalidateBook(isbn);
+        catalogSearch.remove(isbn);
     }
 
 
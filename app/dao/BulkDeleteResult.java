@@ -0,0 +1,62 @@
+package dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Outcome of a bulk deletion of Library Items, reporting how many Items were deleted and which requested Items
+ * were not found. Returned to the Client as the body of the bulk discard response.
+ */
+public class BulkDeleteResult {
+
+
+    /**
+     * Number of Items deleted from the database
+     */
+    private int deleted;
+
+
+    /**
+     * ISBNs of requested Items which were not found in the database
+     */
+    private final List<String> notFound = new ArrayList<>();
+
+
+    /**
+     * Getter for number of deleted Items
+     * @return
+     */
+    public int getDeleted() {
+        return deleted;
+    }
+
+
+    /**
+     * Getter for ISBNs of Items which were not found
+     * @return
+     */
+    public List<String> getNotFound() {
+        return notFound;
+    }
+
+
+    /**
+     * Method to record that a number of Items were deleted
+     * @param count
+     */
+    void addDeleted(int count) {
+        deleted += count;
+    }
+
+
+    /**
+     * Method to record an Item which was not found
+     * @param isbn
+     */
+    void addNotFound(String isbn) {
+        notFound.add(isbn);
+    }
+
+
+}
@@ -0,0 +1,78 @@
+package dao;
+
+import io.ebean.Ebean;
+import io.ebean.SqlRow;
+import io.ebean.Transaction;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+
+/**
+ * Utility class used by Data Access Object Implementations to discard many Library Items at once.
+ * Items are deleted with one statement per chunk of ISBNs, and their Transaction Logs and Reservations are removed
+ * by the database through foreign keys which cascade on delete. All chunks run in a single transaction, so either
+ * all Items are discarded or none are.
+ */
+final class BulkDeleter {
+
+
+    /**
+     * Number of ISBNs bound to a single delete statement
+     */
+    static final int CHUNK_SIZE = 500;
+
+
+    /**
+     * Private constructor, since this class only exposes static utility methods
+     */
+    private BulkDeleter() {
+    }
+
+
+    /**
+     * Method to delete all Items of a type with the given ISBNs, and release their capacity on the inventory counter
+     * in the same transaction.
+     * @param itemType - type of the Items, as stored in the item_type discriminator column
+     * @param isbns - ISBNs of Items to be deleted
+     * @param inventoryDao - inventory counters on which the capacity of deleted Items is released
+     * @param onDeleted - callback invoked with the ISBN of every deleted Item after the transaction is committed
+     * @return - summary of deleted Items and of ISBNs which were not found
+     */
+    static BulkDeleteResult deleteAll(String itemType, Collection<String> isbns, InventoryDao inventoryDao,
+                                      Consumer<String> onDeleted) {
+        List<String> requested = new ArrayList<>(new LinkedHashSet<>(isbns));
+        Set<String> deleted = new HashSet<>();
+        try (Transaction transaction = Ebean.beginTransaction()) {
+            for (int from = 0; from < requested.size(); from += CHUNK_SIZE) {
+                List<String> chunk = requested.subList(from, Math.min(from + CHUNK_SIZE, requested.size()));
+                for (SqlRow row : Ebean.createSqlQuery("delete from library_item" +
+                        " where item_type = :itemType and isbn in (:isbns) returning isbn")
+                        .setParameter("itemType", itemType)
+                        .setParameter("isbns", chunk)
+                        .findList()) {
+                    deleted.add(row.getString("isbn"));
+                }
+            }
+            inventoryDao.releaseCapacity(itemType, deleted.size());
+            transaction.commit();
+        }
+        BulkDeleteResult result = new BulkDeleteResult();
+        result.addDeleted(deleted.size());
+        for (String isbn : requested) {
+            if (deleted.contains(isbn)) {
+                onDeleted.accept(isbn);
+            } else {
+                result.addNotFound(isbn);
+            }
+        }
+        return result;
+    }
+
+
+}
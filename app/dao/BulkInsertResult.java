@@ -0,0 +1,109 @@
+package dao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Outcome of a bulk import of Library Items, reporting how many Items were inserted and which Items were skipped
+ * and why. Returned to the Client as the body of the bulk import response.
+ */
+public class BulkInsertResult {
+
+
+    /**
+     * Number of Items inserted into the database
+     */
+    private int inserted;
+
+
+    /**
+     * ISBNs of Items skipped because a record already exists for them, or because they were repeated in the import
+     */
+    private final List<String> duplicates = new ArrayList<>();
+
+
+    /**
+     * ISBNs of Items skipped because the library reached maximum capacity for the Item type
+     */
+    private final List<String> overCapacity = new ArrayList<>();
+
+
+    /**
+     * Number of Items skipped because they did not have an ISBN
+     */
+    private int invalid;
+
+
+    /**
+     * Getter for number of inserted Items
+     * @return
+     */
+    public int getInserted() {
+        return inserted;
+    }
+
+
+    /**
+     * Getter for ISBNs of duplicate Items
+     * @return
+     */
+    public List<String> getDuplicates() {
+        return duplicates;
+    }
+
+
+    /**
+     * Getter for ISBNs of Items rejected due to maximum capacity
+     * @return
+     */
+    public List<String> getOverCapacity() {
+        return overCapacity;
+    }
+
+
+    /**
+     * Getter for number of Items without an ISBN
+     * @return
+     */
+    public int getInvalid() {
+        return invalid;
+    }
+
+
+    /**
+     * Method to record that a chunk of Items was inserted
+     * @param count - number of Items in the chunk
+     */
+    void addInserted(int count) {
+        inserted += count;
+    }
+
+
+    /**
+     * Method to record an Item skipped as a duplicate
+     * @param isbn
+     */
+    void addDuplicate(String isbn) {
+        duplicates.add(isbn);
+    }
+
+
+    /**
+     * Method to record an Item rejected due to maximum capacity
+     * @param isbn
+     */
+    void addOverCapacity(String isbn) {
+        overCapacity.add(isbn);
+    }
+
+
+    /**
+     * Method to record an Item skipped for not having an ISBN
+     */
+    void addInvalid() {
+        invalid++;
+    }
+
+
+}
@@ -0,0 +1,134 @@
+package dao;
+
+import io.ebean.Ebean;
+import io.ebean.Transaction;
+import models.ItemTransactionLog;
+import models.LibraryItem;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+
+/**
+ * Utility class used by Data Access Object Implementations to import a stream of Library Items.
+ * Items are consumed from the stream in chunks, and each chunk is inserted together with the Transaction Logs of
+ * its Items as JDBC batches in one transaction, instead of issuing several statements per Item.
+ */
+final class BulkInserter {
+
+
+    /**
+     * Number of Items inserted per transaction
+     */
+    static final int CHUNK_SIZE = 500;
+
+
+    /**
+     * Private constructor, since this class only exposes static utility methods
+     */
+    private BulkInserter() {
+    }
+
+
+    /**
+     * Method to insert all Items of a stream which do not exist in the database yet, up to the remaining capacity of
+     * the library. Chunks that were committed before a failure (e.g. malformed input further down the stream) stay
+     * inserted. Once the library reaches its capacity, the rest of the stream is rejected without further queries.
+     * @param items - stream of Items to be imported, consumed lazily
+     * @param itemType - type of the Items, as counted by the inventory counters
+     * @param inventoryDao - inventory counters on which capacity for each chunk is reserved
+     * @param onInserted - callback invoked with every inserted Item after its chunk is committed
+     * @param <T> - type of Library Item
+     * @return - summary of inserted and skipped Items
+     */
+    static <T extends LibraryItem> BulkInsertResult insertAll(Iterator<? extends T> items, String itemType,
+                                                               InventoryDao inventoryDao,
+                                                               Consumer<? super T> onInserted) {
+        BulkInsertResult result = new BulkInsertResult();
+        boolean full = false;
+        Set<String> seen = new HashSet<>();
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (items.hasNext()) {
+            T item = items.next();
+            if (item == null || item.getISBN() == null || item.getISBN().isEmpty()) {
+                result.addInvalid();
+            } else if (!seen.add(item.getISBN())) {
+                result.addDuplicate(item.getISBN());
+            } else if (full) {
+                result.addOverCapacity(item.getISBN());
+            } else {
+                chunk.add(item);
+                if (chunk.size() == CHUNK_SIZE) {
+                    full = insertChunk(chunk, itemType, inventoryDao, result, onInserted);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, itemType, inventoryDao, result, onInserted);
+        }
+        return result;
+    }
+
+
+    /**
+     * Private utility method to insert one chunk of Items in a single transaction. Items whose ISBN already exists
+     * for an Item of any type are found with a single query, and the remaining Items and their Transaction Logs are
+     * sent as JDBC batches. Capacity for the new Items is reserved on the inventory counter in the same transaction.
+     * @param chunk
+     * @param itemType
+     * @param inventoryDao
+     * @param result
+     * @param onInserted
+     * @param <T>
+     * @return - true if the library has reached its capacity for the Item type
+     */
+    private static <T extends LibraryItem> boolean insertChunk(List<T> chunk, String itemType,
+                                                               InventoryDao inventoryDao, BulkInsertResult result,
+                                                               Consumer<? super T> onInserted) {
+        List<String> isbns = new ArrayList<>(chunk.size());
+        for (T item : chunk) {
+            isbns.add(item.getISBN());
+        }
+        List<T> candidates = new ArrayList<>(chunk.size());
+        List<T> toInsert = new ArrayList<>(chunk.size());
+        List<ItemTransactionLog> logs = new ArrayList<>(chunk.size());
+        boolean full;
+        try (Transaction transaction = Ebean.beginTransaction()) {
+            Set<Object> existing = new HashSet<>(Ebean.find(LibraryItem.class).where().idIn(isbns).findIds());
+            for (T item : chunk) {
+                if (existing.contains(item.getISBN())) {
+                    result.addDuplicate(item.getISBN());
+                } else {
+                    candidates.add(item);
+                }
+            }
+            int reserved = inventoryDao.reserveCapacityUpTo(itemType, candidates.size());
+            full = reserved < candidates.size();
+            for (T item : candidates) {
+                if (toInsert.size() < reserved) {
+                    toInsert.add(item);
+                    logs.add(new ItemTransactionLog(item.getISBN(), 0, 0, 0));
+                } else {
+                    result.addOverCapacity(item.getISBN());
+                }
+            }
+            transaction.setBatchMode(true);
+            transaction.setBatchSize(CHUNK_SIZE);
+            Ebean.saveAll(toInsert);
+            Ebean.saveAll(logs);
+            transaction.commit();
+        }
+        result.addInserted(toInsert.size());
+        for (T item : toInsert) {
+            onInserted.accept(item);
+        }
+        return full;
+    }
+
+
+}
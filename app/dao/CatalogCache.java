@@ -0,0 +1,248 @@
+package dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.typesafe.config.Config;
+import models.Book;
+import models.Dvd;
+import models.Reader;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+
+/**
+ * Bounded, in-process read-through cache for catalog lookups of Books and Dvds by ISBN, and of Readers by Id.
+ * Each Item type, and Readers, have their own size- and time-based eviction settings, read from the "library.cache"
+ * section of application.conf. Data Access Objects invalidate entries whenever they write to an Item or Reader.
+ * Additionally keeps one pre-serialized snapshot of the full listing per Item type, which is regenerated lazily after
+ * any write to that Item type made through this instance, and at the latest once it is older than the
+ * "library.cache.listing.expire-after-write" setting, which bounds how long writes made by other application
+ * instances or directly to the database go unnoticed.
+ * @Singleton annotation is used to indicate to Guice that this class should only instantiate a single instance
+ * for entire application runtime, so that all Data Access Objects share the same cache.
+ */
+@Singleton
+public class CatalogCache {
+
+
+    /**
+     * Cache of Books, keyed by ISBN
+     */
+    private final Cache<String, Book> books;
+
+
+    /**
+     * Cache of Dvds, keyed by ISBN
+     */
+    private final Cache<String, Dvd> dvds;
+
+
+    /**
+     * Cache of Readers, keyed by reader Id
+     */
+    private final Cache<String, Reader> readers;
+
+
+    /**
+     * Cached snapshot of the full Book listing
+     */
+    private final ListingCache bookListing;
+
+
+    /**
+     * Cached snapshot of the full Dvd listing
+     */
+    private final ListingCache dvdListing;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve the application configuration
+     * @param config - application configuration containing the "library.cache" settings
+     */
+    @Inject
+    public CatalogCache(Config config) {
+        this.books = buildCache(config.getConfig("library.cache.book"));
+        this.dvds = buildCache(config.getConfig("library.cache.dvd"));
+        this.readers = buildCache(config.getConfig("library.cache.reader"));
+        long listingMaxAgeNanos = config.getDuration("library.cache.listing.expire-after-write", TimeUnit.NANOSECONDS);
+        this.bookListing = new ListingCache(listingMaxAgeNanos);
+        this.dvdListing = new ListingCache(listingMaxAgeNanos);
+    }
+
+
+    /**
+     * Method to get a Book from the cache, loading it with the given loader on a cache miss.
+     * @param isbn - ISBN of the Book
+     * @param loader - function loading the Book from the database, returning null if it does not exist
+     * @return - the Book, or null if the loader did not find it
+     */
+    public Book getBook(String isbn, Function<String, Book> loader) {
+        return books.get(isbn, loader);
+    }
+
+
+    /**
+     * Method to get a Dvd from the cache, loading it with the given loader on a cache miss.
+     * @param isbn - ISBN of the Dvd
+     * @param loader - function loading the Dvd from the database, returning null if it does not exist
+     * @return - the Dvd, or null if the loader did not find it
+     */
+    public Dvd getDvd(String isbn, Function<String, Dvd> loader) {
+        return dvds.get(isbn, loader);
+    }
+
+
+    /**
+     * Method to get a Reader from the cache, loading it with the given loader on a cache miss.
+     * @param id - Id of the Reader
+     * @param loader - function loading the Reader from the database, returning null if it does not exist
+     * @return - the Reader, or null if the loader did not find it
+     */
+    public Reader getReader(String id, Function<String, Reader> loader) {
+        return readers.get(id, loader);
+    }
+
+
+    /**
+     * Method to get the snapshot of the full Book listing, loading a new one if the catalog has been written to
+     * since the cached snapshot was taken.
+     * @param loader - supplier loading all Books from the database
+     * @return
+     */
+    public CatalogSnapshot getBookListing(Supplier<? extends Collection<Book>> loader) {
+        return bookListing.get(loader);
+    }
+
+
+    /**
+     * Method to get the snapshot of the full Dvd listing, loading a new one if the catalog has been written to
+     * since the cached snapshot was taken.
+     * @param loader - supplier loading all Dvds from the database
+     * @return
+     */
+    public CatalogSnapshot getDvdListing(Supplier<? extends Collection<Dvd>> loader) {
+        return dvdListing.get(loader);
+    }
+
+
+    /**
+     * Method to discard the cached Book for the given ISBN, and the Book listing snapshot.
+     * Invoked whenever the Book is written to.
+     * @param isbn
+     */
+    public void invalidateBook(String isbn) {
+        books.invalidate(isbn);
+        bookListing.invalidate();
+    }
+
+
+    /**
+     * Method to discard the cached Dvd for the given ISBN, and the Dvd listing snapshot.
+     * Invoked whenever the Dvd is written to.
+     * @param isbn
+     */
+    public void invalidateDvd(String isbn) {
+        dvds.invalidate(isbn);
+        dvdListing.invalidate();
+    }
+
+
+    /**
+     * Method to discard the cached Reader for the given Id.
+     * Invoked whenever the Reader is written to.
+     * @param id
+     */
+    public void invalidateReader(String id) {
+        readers.invalidate(id);
+    }
+
+
+    /**
+     * Getter for hit, miss and eviction statistics of the Book cache
+     * @return
+     */
+    public CacheStats getBookStats() {
+        return books.stats();
+    }
+
+
+    /**
+     * Getter for hit, miss and eviction statistics of the Dvd cache
+     * @return
+     */
+    public CacheStats getDvdStats() {
+        return dvds.stats();
+    }
+
+
+    /**
+     * Getter for hit, miss and eviction statistics of the Reader cache
+     * @return
+     */
+    public CacheStats getReaderStats() {
+        return readers.stats();
+    }
+
+
+    /**
+     * Holder of the listing snapshot of one Item type. Every write increments the generation, and a snapshot is only
+     * served while its generation is current, so that a listing loaded concurrently with a write is never served
+     * after the write. A snapshot is also only served until it reaches its maximum age.
+     */
+    private static final class ListingCache {
+
+        private final long maxAgeNanos;
+
+        private final AtomicLong generation = new AtomicLong();
+
+        private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+
+        ListingCache(long maxAgeNanos) {
+            this.maxAgeNanos = maxAgeNanos;
+        }
+
+        CatalogSnapshot get(Supplier<? extends Collection<?>> loader) {
+            long current = generation.get();
+            CatalogSnapshot cached = snapshot.get();
+            if (cached != null && cached.getGeneration() == current
+                    && System.nanoTime() - cached.getLoadedAtNanos() < maxAgeNanos) {
+                return cached;
+            }
+            CatalogSnapshot loaded = CatalogSnapshot.of(loader.get(), current);
+            snapshot.accumulateAndGet(loaded, (existing, candidate) ->
+                    existing == null || candidate.getGeneration() >= existing.getGeneration() ? candidate : existing);
+            return loaded;
+        }
+
+        void invalidate() {
+            generation.incrementAndGet();
+        }
+
+    }
+
+
+    /**
+     * Private utility method to build a cache from its configuration section
+     * @param config - configuration section with maximum-size and expire-after-write settings
+     * @param <V> - type of cached Item
+     * @return
+     */
+    private static <V> Cache<String, V> buildCache(Config config) {
+        return Caffeine.newBuilder()
+                .maximumSize(config.getLong("maximum-size"))
+                .expireAfterWrite(config.getDuration("expire-after-write", TimeUnit.MILLISECONDS),
+                        TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+
+}
@@ -0,0 +1,27 @@
+package dao;
+
+import models.LibraryItem;
+
+import java.util.List;
+
+
+/**
+ * Interface that declares the contract for behavior that all Catalog Search Implementations should define and
+ * implement. Library Items of every type are searched by the words of their title, section, authors, publisher,
+ * actors and producer, and matches are returned ranked by relevance.
+ * Book and Dvd Data Access Objects report every write to the search, so that implementations which keep their own
+ * index can update it incrementally.
+ * The implementation is selected by the "library.search.mode" setting, and bound in Module: InMemoryCatalogSearch
+ * keeps an inverted index in the heap, and DatabaseCatalogSearch uses the full-text indexes of the database.
+ */
+public interface CatalogSearch {
+
+    List<SearchHit> search(String query, int limit);
+
+    boolean isReady();
+
+    void index(LibraryItem item);
+
+    void remove(String isbn);
+
+}
@@ -0,0 +1,167 @@
+package dao;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import play.libs.Json;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+
+
+/**
+ * Immutable, pre-serialized JSON snapshot of a full catalog listing (all Books or all Dvds), together with a strong
+ * entity tag computed from its content. Snapshots are cached by CatalogCache and served as-is until the catalog
+ * is written to, or they expire.
+ */
+public final class CatalogSnapshot {
+
+
+    /**
+     * Serialized JSON array of all Items in the listing
+     */
+    private final byte[] body;
+
+
+    /**
+     * Strong entity tag (quoted SHA-256 hash of body), used to answer conditional requests
+     */
+    private final String etag;
+
+
+    /**
+     * Number of Items in the listing
+     */
+    private final int size;
+
+
+    /**
+     * Catalog write generation at which the listing was loaded. Used to detect snapshots made stale by writes.
+     */
+    private final long generation;
+
+
+    /**
+     * Value of System.nanoTime() when the listing was loaded. Used to expire snapshots made stale by writes which
+     * this application instance has not seen.
+     */
+    private final long loadedAtNanos;
+
+
+    /**
+     * Private constructor, snapshots are created through the of() factory method
+     * @param body
+     * @param etag
+     * @param size
+     * @param generation
+     * @param loadedAtNanos
+     */
+    private CatalogSnapshot(byte[] body, String etag, int size, long generation, long loadedAtNanos) {
+        this.body = body;
+        this.etag = etag;
+        this.size = size;
+        this.generation = generation;
+        this.loadedAtNanos = loadedAtNanos;
+    }
+
+
+    /**
+     * Factory method to serialize a listing of Items into a snapshot.
+     * @param items - the Items in the listing
+     * @param generation - catalog write generation at which the Items were loaded
+     * @return
+     */
+    public static CatalogSnapshot of(Collection<?> items, long generation) {
+        try {
+            byte[] body = Json.mapper().writeValueAsBytes(items);
+            return new CatalogSnapshot(body, computeEtag(body), items.size(), generation, System.nanoTime());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize catalog listing.", e);
+        }
+    }
+
+
+    /**
+     * Getter for serialized JSON body
+     * @return
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+
+    /**
+     * Getter for entity tag
+     * @return
+     */
+    public String getEtag() {
+        return etag;
+    }
+
+
+    /**
+     * Getter for number of Items in the listing
+     * @return
+     */
+    public int getSize() {
+        return size;
+    }
+
+
+    /**
+     * Getter for catalog write generation
+     * @return
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+
+    /**
+     * Getter for System.nanoTime() value at which the listing was loaded
+     * @return
+     */
+    public long getLoadedAtNanos() {
+        return loadedAtNanos;
+    }
+
+
+    /**
+     * Method to check if a Client's If-None-Match request header matches this snapshot's entity tag, meaning that
+     * the Client already holds the current listing.
+     * @param ifNoneMatch - value of the If-None-Match header, or null if the header was not sent
+     * @return
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Private utility method to compute a strong entity tag from the serialized body
+     * @param body
+     * @return
+     */
+    private static String computeEtag(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder etag = new StringBuilder("\"");
+            for (byte b : hash) {
+                etag.append(String.format("%02x", b));
+            }
+            return etag.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM.", e);
+        }
+    }
+
+
+}
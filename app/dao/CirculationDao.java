@@ -0,0 +1,40 @@
+package dao;
+
+import com.google.inject.ImplementedBy;
+import exceptions.ItemNotBorrowedException;
+import exceptions.ItemUnavailableException;
+import exceptions.ReaderNotFoundException;
+import utils.MyDateUtil;
+
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.OptimisticLockException;
+import java.math.BigDecimal;
+import java.util.List;
+
+
+/**
+ * Interface that declares the contract for behavior that all Circulation Data Access Object Implementations should
+ * define and implement. Circulation operations update a Library Item and record the operation in the circulation
+ * journal, and are expected to be applied atomically.
+ *
+ * @ImplementedBy tells Guice which classes (CirculationDaoImpl.class) implements this interface.
+ *
+ */
+@ImplementedBy(CirculationDaoImpl.class)
+public interface CirculationDao {
+
+    void borrowItem(String isbn, String readerId, MyDateUtil borrowedOn)
+            throws EntityNotFoundException, ItemUnavailableException, ReaderNotFoundException;
+
+    BigDecimal returnItem(String isbn, MyDateUtil returnedOn)
+            throws EntityNotFoundException, ItemNotBorrowedException, OptimisticLockException;
+
+    int reserveItem(String isbn, String readerId) throws EntityNotFoundException;
+
+    void cancelReservation(String isbn, String readerId) throws EntityNotFoundException;
+
+    BatchCirculationResult borrowItems(List<CirculationRequest> requests);
+
+    BatchCirculationResult returnItems(List<CirculationRequest> requests) throws OptimisticLockException;
+
+}
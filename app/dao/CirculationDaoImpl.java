@@ -0,0 +1,392 @@
+package dao;
+
+import exceptions.ItemNotBorrowedException;
+import exceptions.ItemUnavailableException;
+import exceptions.ReaderNotFoundException;
+import io.ebean.Ebean;
+import io.ebean.SqlRow;
+import io.ebean.Transaction;
+import models.Book;
+import models.CirculationEvent;
+import models.ItemTransactionLog;
+import models.LibraryItem;
+import models.NotificationOutbox;
+import models.ReservationEntry;
+import utils.MyDateUtil;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.OptimisticLockException;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Implementation of the Circulation Dao Interface
+ * Executes circulation operations (Item borrowal, return and reservation) inside a single explicit Ebean
+ * transaction each. Borrowal uses conditional updates so that an Item can only be borrowed by one Reader at a time,
+ * and return relies on @Version optimistic locking and is retried on conflict.
+ * Every operation is recorded as an event in the append-only circulation journal, in the same transaction. Item
+ * Transaction Logs and Reservation queues are not written here, but derived from the journal by the
+ * CirculationProjector shortly after the transaction commits.
+ * Items of every type live in the single library_item table, so Items are identified by ISBN alone.
+ * Borrowing Readers are validated through the cached Reader lookup of the Reader Dao before any write is made, so
+ * that an unknown Reader Id never opens a transaction or locks an Item.
+ * @Singleton annotation is used to indicate to Guice that this class should only instantiate a single instance
+ * for entire application runtime.
+ */
+@Singleton
+public class CirculationDaoImpl implements CirculationDao {
+
+
+    /**
+     * Cache of catalog lookups, invalidated whenever an Item is borrowed or returned
+     */
+    private final CatalogCache catalogCache;
+
+
+    /**
+     * Reader Dao, used to validate borrowing Readers
+     */
+    private final ReaderDao readerDao;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve CatalogCache and ReaderDao dependencies
+     * @param catalogCache
+     * @param readerDao
+     */
+    @Inject
+    public CirculationDaoImpl(CatalogCache catalogCache, ReaderDao readerDao) {
+        this.catalogCache = catalogCache;
+        this.readerDao = readerDao;
+    }
+
+
+    /**
+     * Method to borrow an Item for a Reader.
+     * The Item is claimed with a conditional update which only succeeds if the Item is not currently borrowed, and
+     * the borrowal is then recorded in the circulation journal in the same transaction. The ItemTransactionLog
+     * update and the removal of the Reader's Reservation are applied by the CirculationProjector.
+     * @param isbn - ISBN of Item being borrowed
+     * @param readerId - Id of Reader borrowing the Item
+     * @param borrowedOn - date on which the Item is borrowed
+     * @throws EntityNotFoundException - when an Item is not found for the given ISBN.
+     * @throws ItemUnavailableException - when the Item is currently borrowed by another Reader.
+     * @throws ReaderNotFoundException - when a Reader is not found for the given reader Id.
+     */
+    @Override
+    public void borrowItem(String isbn, String readerId, MyDateUtil borrowedOn)
+            throws EntityNotFoundException, ItemUnavailableException, ReaderNotFoundException {
+
+        if (!readerDao.readerExists(readerId)) {
+            throw new ReaderNotFoundException("Failed to borrow Item. Reader not found for given Reader Id.");
+        }
+
+        String itemType;
+
+        try (Transaction transaction = Ebean.beginTransaction()) {
+
+            // Returns the type of the claimed Item, or no row if the Item was not claimed
+            SqlRow claimed = Ebean.createSqlQuery("update library_item" +
+                    " set current_reader_reader_id = :readerId, borrowed_on = :borrowedOn," +
+                    " version = version + 1" +
+                    " where isbn = :isbn and current_reader_reader_id is null" +
+                    " returning item_type")
+                    .setParameter("readerId", readerId)
+                    .setParameter("borrowedOn", Date.valueOf(borrowedOn.toLocalDate()))
+                    .setParameter("isbn", isbn)
+                    .findOne();
+
+            if (claimed == null) {
+                // Only reached on failure, to tell a missing Item apart from one which is already borrowed
+                if (Ebean.find(LibraryItem.class).where().idEq(isbn).findCount() == 0) {
+                    throw new EntityNotFoundException("Failed to borrow Item. Item not found for given ISBN.");
+                } else {
+                    throw new ItemUnavailableException("Failed to borrow Item. Item is currently borrowed by " +
+                            "another Reader.");
+                }
+            }
+            itemType = claimed.getString("item_type");
+
+            CirculationEvent.recordBorrowal(isbn, readerId, borrowedOn);
+
+            transaction.commit();
+        }
+
+        invalidateCachedItem(itemType, isbn);
+
+    }
+
+
+    /**
+     * Method to return a borrowed Item.
+     * Records the return in the circulation journal, writes a notification to the outbox for every Reader in the
+     * Reservation queue of the Item, calculates the late fee and resets the borrowal details of the Item in one
+     * transaction. The journal and outbox inserts and the Item update are sent as a single JDBC batch, and the
+     * transaction is retried if the Item was updated concurrently. Notifications are delivered later by the
+     * NotificationDispatcher.
+     * @param isbn - ISBN of Item being returned
+     * @param returnedOn - date on which the Item is returned
+     * @return - the late item return fee to be paid by the Reader
+     * @throws EntityNotFoundException - when an Item is not found for the given ISBN.
+     * @throws ItemNotBorrowedException - when the Item is not currently borrowed, e.g. if it was already returned.
+     * @throws OptimisticLockException - when the Item keeps being updated concurrently after all retries.
+     */
+    @Override
+    public BigDecimal returnItem(String isbn, MyDateUtil returnedOn)
+            throws EntityNotFoundException, ItemNotBorrowedException, OptimisticLockException {
+
+        BigDecimal returnFee = OptimisticLockRetry.withRetry(() -> {
+            try (Transaction transaction = Ebean.beginTransaction()) {
+
+                LibraryItem item = Ebean.find(LibraryItem.class, isbn);
+                if (item == null) {
+                    throw new EntityNotFoundException("Failed to return Item. Item not found for given ISBN.");
+                }
+                if (item.getBorrowedOn() == null) {
+                    // Reported below, as the retried operation cannot throw checked exceptions
+                    return null;
+                }
+
+                transaction.setBatchMode(true);
+
+                CirculationEvent.recordReturn(item, returnedOn); // Record that item has been returned by user
+                NotificationOutbox.enqueueForReturn(isbn); // Notify readers who have reserved the item
+                BigDecimal dueFee = item.calculateLateFee(returnedOn);
+                item.setCurrentReader(null); // Reset current reader attribute value
+                item.setBorrowedOn(null); // Reset borrowed on attribute value
+                item.update();
+
+                transaction.commit();
+                invalidateCachedItem(item.getItemType(), isbn);
+                return dueFee;
+            }
+        });
+
+        if (returnFee == null) {
+            throw new ItemNotBorrowedException("Failed to return Item. Item is not currently borrowed.");
+        }
+        return returnFee;
+
+    }
+
+
+    /**
+     * Method to place a Reservation for an Item on behalf of a Reader.
+     * The Reservation is recorded in the circulation journal with a single insert, and appended to the Reservation
+     * queue by the CirculationProjector. The waiting time is estimated from the current queue, which combines the
+     * projected queue with the journal events not projected yet, so that it counts the new Reservation and every
+     * Reservation committed before it.
+     * @param isbn - ISBN of Item being reserved
+     * @param readerId - Id of Reader placing the Reservation
+     * @return - the estimated waiting time in days, based on the reservation queue
+     * @throws EntityNotFoundException - when an Item is not found for the given ISBN.
+     */
+    @Override
+    public int reserveItem(String isbn, String readerId) throws EntityNotFoundException {
+
+        try (Transaction transaction = Ebean.beginTransaction()) {
+
+            if (Ebean.find(LibraryItem.class).where().idEq(isbn).findCount() == 0) {
+                throw new EntityNotFoundException("Failed to reserve Item. Item not found for given ISBN.");
+            }
+
+            CirculationEvent.recordReservation(isbn, readerId);
+
+            double avgBorrowalPeriod = ItemTransactionLog.getLogByItem(isbn).getAverageBorrowalPeriod();
+            int noOfReadersInQueue = ReservationEntry.countForItem(isbn); // counts the Reservation recorded above
+
+            transaction.commit();
+            return (int) Math.round(noOfReadersInQueue * avgBorrowalPeriod);
+        }
+
+    }
+
+
+    /**
+     * Method to cancel the Reservations of an Item placed by a Reader.
+     * The cancellation is recorded in the circulation journal with a single insert, and the Reader is removed from
+     * the Reservation queue by the CirculationProjector.
+     * @param isbn - ISBN of reserved Item
+     * @param readerId - Id of Reader cancelling the Reservation
+     * @throws EntityNotFoundException - when an Item is not found for the given ISBN.
+     */
+    @Override
+    public void cancelReservation(String isbn, String readerId) throws EntityNotFoundException {
+
+        try (Transaction transaction = Ebean.beginTransaction()) {
+
+            if (Ebean.find(LibraryItem.class).where().idEq(isbn).findCount() == 0) {
+                throw new EntityNotFoundException("Failed to cancel Reservation. Item not found for given ISBN.");
+            }
+
+            CirculationEvent.recordCancellation(isbn, readerId);
+
+            transaction.commit();
+        }
+
+    }
+
+
+    /**
+     * Method to borrow a batch of Items, as scanned together at the circulation desk.
+     * All requested Items are loaded and locked with one IN query, and the claims and journal events of all
+     * borrowable Items are sent as JDBC batches in one transaction.
+     * Entries which cannot be borrowed are reported in the result instead of failing the whole batch. The Readers of
+     * the batch are validated through the cached Reader lookup before the transaction is opened.
+     * @param requests - the Items to be borrowed, with the borrowing Reader and borrowal date of each
+     * @return - one result per request, in request order
+     */
+    @Override
+    public BatchCirculationResult borrowItems(List<CirculationRequest> requests) {
+
+        BatchCirculationResult result = new BatchCirculationResult();
+        List<LibraryItem> borrowed = new ArrayList<>();
+
+        Map<String, Boolean> readers = new HashMap<>();
+        for (CirculationRequest request : requests) {
+            readers.computeIfAbsent(request.getReaderId(), readerDao::readerExists);
+        }
+
+        try (Transaction transaction = Ebean.beginTransaction()) {
+
+            Map<String, LibraryItem> items = findItemsForUpdate(requests);
+
+            transaction.setBatchMode(true);
+
+            for (CirculationRequest request : requests) {
+                LibraryItem item = items.get(request.getIsbn());
+                CirculationResult.Status status;
+                if (!readers.get(request.getReaderId())) {
+                    status = CirculationResult.Status.READER_NOT_FOUND;
+                } else if (item == null) {
+                    status = CirculationResult.Status.NOT_FOUND;
+                } else if (item.getCurrentReader() != null || item.getBorrowedOn() != null) {
+                    status = CirculationResult.Status.UNAVAILABLE;
+                } else {
+                    Ebean.createSqlUpdate("update library_item" +
+                            " set current_reader_reader_id = :readerId, borrowed_on = :borrowedOn," +
+                            " version = version + 1 where isbn = :isbn")
+                            .setParameter("readerId", request.getReaderId())
+                            .setParameter("borrowedOn", Date.valueOf(request.getDate().toLocalDate()))
+                            .setParameter("isbn", request.getIsbn())
+                            .execute();
+                    CirculationEvent.recordBorrowal(request.getIsbn(), request.getReaderId(), request.getDate());
+                    item.setBorrowedOn(request.getDate()); // Marks the Item as claimed for later entries of the batch
+                    borrowed.add(item);
+                    status = CirculationResult.Status.BORROWED;
+                }
+                result.add(new CirculationResult(request.getIsbn(), status, null));
+            }
+
+            transaction.commit();
+        }
+
+        for (LibraryItem item : borrowed) {
+            invalidateCachedItem(item.getItemType(), item.getISBN());
+        }
+        return result;
+
+    }
+
+
+    /**
+     * Method to return a batch of Items, as scanned together at the circulation desk.
+     * All requested Items are loaded and locked with one IN query, and the late fees are calculated in memory. The
+     * updated Items, the journal events of their returns and the outbox notifications for their Reservation queues
+     * are then sent as JDBC batches in one transaction, which is retried if it conflicts with a concurrent update.
+     * Entries which cannot be returned are reported in the result instead of failing the whole batch.
+     * @param requests - the Items to be returned, with the return date of each
+     * @return - one result per request in request order, with the late fee of each Item and the total of all fees
+     * @throws OptimisticLockException - when the Items keep being updated concurrently after all retries.
+     */
+    @Override
+    public BatchCirculationResult returnItems(List<CirculationRequest> requests) throws OptimisticLockException {
+
+        return OptimisticLockRetry.withRetry(() -> {
+
+            BatchCirculationResult result = new BatchCirculationResult();
+            List<LibraryItem> returnedItems = new ArrayList<>();
+
+            try (Transaction transaction = Ebean.beginTransaction()) {
+
+                Map<String, LibraryItem> items = findItemsForUpdate(requests);
+
+                transaction.setBatchMode(true);
+
+                for (CirculationRequest request : requests) {
+                    LibraryItem item = items.get(request.getIsbn());
+                    if (item == null) {
+                        result.add(new CirculationResult(request.getIsbn(),
+                                CirculationResult.Status.NOT_FOUND, null));
+                    } else if (item.getBorrowedOn() == null) {
+                        result.add(new CirculationResult(request.getIsbn(),
+                                CirculationResult.Status.NOT_BORROWED, null));
+                    } else {
+                        CirculationEvent.recordReturn(item, request.getDate());
+                        NotificationOutbox.enqueueForReturn(request.getIsbn());
+                        BigDecimal dueFee = item.calculateLateFee(request.getDate());
+                        item.setCurrentReader(null); // Reset current reader attribute value
+                        item.setBorrowedOn(null); // Reset borrowed on attribute value
+                        returnedItems.add(item);
+                        result.add(new CirculationResult(request.getIsbn(), CirculationResult.Status.RETURNED,
+                                dueFee));
+                    }
+                }
+
+                Ebean.updateAll(returnedItems);
+
+                transaction.commit();
+            }
+
+            for (LibraryItem item : returnedItems) {
+                invalidateCachedItem(item.getItemType(), item.getISBN());
+            }
+            return result;
+
+        });
+
+    }
+
+
+    /**
+     * Private utility method to load and lock all Items referenced by a batch of requests with a single IN query
+     * @param requests
+     * @return - the loaded Items, keyed by ISBN
+     */
+    private static Map<String, LibraryItem> findItemsForUpdate(List<CirculationRequest> requests) {
+        Set<String> isbns = new HashSet<>();
+        for (CirculationRequest request : requests) {
+            isbns.add(request.getIsbn());
+        }
+        Map<String, LibraryItem> items = new HashMap<>();
+        for (LibraryItem item : Ebean.find(LibraryItem.class).where().idIn(isbns).forUpdate().findList()) {
+            items.put(item.getISBN(), item);
+        }
+        return items;
+    }
+
+
+    /**
+     * Private utility method to discard the cached copy of an Item after it has been borrowed or returned
+     * @param itemType - type of Item, as stored in its item_type discriminator column
+     * @param isbn - ISBN of Item
+     */
+    private void invalidateCachedItem(String itemType, String isbn) {
+        if (Book.ITEM_TYPE.equals(itemType)) {
+            catalogCache.invalidateBook(isbn);
+        } else {
+            catalogCache.invalidateDvd(isbn);
+        }
+    }
+
+
+}
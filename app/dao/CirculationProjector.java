@@ -0,0 +1,316 @@
+package dao;
+
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import com.typesafe.config.Config;
+import io.ebean.Ebean;
+import io.ebean.SqlRow;
+import io.ebean.Transaction;
+import models.CirculationEvent;
+import models.ItemTransactionLog;
+import models.ProjectionCheckpoint;
+import models.ReservationEntry;
+import play.Logger;
+import play.inject.ApplicationLifecycle;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Asynchronous projector which maintains the Item Transaction Logs and Reservation queues from the append-only
+ * circulation journal, so that circulation requests only append an event and never lock the rows read by
+ * analytics.
+ * Pending events are applied in batches on the Akka scheduler, at the interval configured in the
+ * "library.projection" section of application.conf. Each run is only scheduled once the previous one has finished,
+ * so that a slow run never piles up further runs waiting on the database dispatcher. Each batch is folded in memory
+ * into one update per Item and one statement per changed Reservation, which are sent as JDBC batches in the same
+ * transaction that advances the checkpoint, so every event is applied exactly once.
+ * Events are read in transaction order, and only once every older transaction has finished, so that an event whose
+ * transaction commits late is never skipped.
+ * @Singleton annotation is used to indicate to Guice that this class should only instantiate a single instance
+ * for entire application runtime. It is bound eagerly in Module, so that projection starts with the application.
+ */
+@Singleton
+public class CirculationProjector {
+
+
+    /**
+     * Name of the checkpoint of this projection
+     */
+    private static final String CHECKPOINT = ProjectionCheckpoint.CIRCULATION;
+
+
+    /**
+     * Maximum number of events applied per transaction
+     */
+    private final int batchSize;
+
+
+    /**
+     * Interval between the end of a projection run and the start of the next one
+     */
+    private final FiniteDuration interval;
+
+
+    /**
+     * Actor System whose scheduler runs the projection task
+     */
+    private final ActorSystem actorSystem;
+
+
+    /**
+     * Execution Context on which the projection task is executed
+     */
+    private final DatabaseExecutionContext dbExecutionContext;
+
+
+    /**
+     * Handle of the next scheduled projection run, cancelled when the application stops
+     */
+    private volatile Cancellable schedule;
+
+
+    /**
+     * Whether the application is stopping, after which no further run is scheduled
+     */
+    private volatile boolean stopped;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve the Akka ActorSystem, DatabaseExecutionContext,
+     * application configuration and ApplicationLifecycle, and schedules the projection task.
+     * @param actorSystem - Actor System whose scheduler runs the projection task
+     * @param dbExecutionContext - Execution Context on which the projection task is executed
+     * @param config - application configuration containing the "library.projection" settings
+     * @param lifecycle - lifecycle of the application, used to stop the projection task on shutdown
+     */
+    @Inject
+    public CirculationProjector(ActorSystem actorSystem, DatabaseExecutionContext dbExecutionContext, Config config,
+                                ApplicationLifecycle lifecycle) {
+        this.batchSize = config.getInt("library.projection.batch-size");
+        this.interval = Duration.create(
+                config.getDuration("library.projection.interval", TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+        this.actorSystem = actorSystem;
+        this.dbExecutionContext = dbExecutionContext;
+        scheduleNext();
+        lifecycle.addStopHook(() -> {
+            stopped = true;
+            schedule.cancel();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+
+    /**
+     * Method to apply all pending events of the circulation journal to the projections, one batch per transaction
+     * @return - the number of events applied
+     */
+    public synchronized int projectPending() {
+        int projected = 0;
+        int applied;
+        do {
+            applied = projectBatch();
+            projected += applied;
+        } while (applied == batchSize);
+        return projected;
+    }
+
+
+    /**
+     * Method to rebuild the Item Transaction Logs and Reservation queues from the whole circulation journal.
+     * The projections are reset and the checkpoint rewound in one transaction, and all events are then applied again.
+     * @return - the number of events applied
+     */
+    public synchronized int rebuild() {
+        try (Transaction transaction = Ebean.beginTransaction()) {
+            lockCheckpoint();
+            ItemTransactionLog.resetAll();
+            ReservationEntry.deleteAll();
+            saveCheckpoint(0, 0);
+            transaction.commit();
+        }
+        return projectPending();
+    }
+
+
+    /**
+     * Private utility method to schedule the next projection run after the configured interval, unless the
+     * application is stopping
+     */
+    private void scheduleNext() {
+        if (!stopped) {
+            schedule = actorSystem.scheduler().scheduleOnce(interval, this::projectPendingAndReschedule,
+                    dbExecutionContext);
+        }
+    }
+
+
+    /**
+     * Private utility method run by the scheduler, which logs failures and schedules the next run once this one has
+     * finished
+     */
+    private void projectPendingAndReschedule() {
+        try {
+            projectPending();
+        } catch (RuntimeException e) {
+            Logger.error("Failed to project circulation events", e);
+        } finally {
+            scheduleNext();
+        }
+    }
+
+
+    /**
+     * Private utility method to apply the next batch of pending events in one transaction
+     * @return - the number of events applied
+     */
+    private int projectBatch() {
+        try (Transaction transaction = Ebean.beginTransaction()) {
+
+            SqlRow checkpoint = lockCheckpoint();
+
+            List<SqlRow> events = Ebean.createSqlQuery("select event_id, tx_id, event_type, item_isbn, reader_id," +
+                    " borrowed_days, created_at from circulation_event" +
+                    " where (tx_id, event_id) > (:txId, :eventId)" +
+                    " and tx_id < txid_snapshot_xmin(txid_current_snapshot())" +
+                    " order by tx_id, event_id limit :batchSize")
+                    .setParameter("txId", checkpoint.getLong("last_tx_id"))
+                    .setParameter("eventId", checkpoint.getLong("last_event_id"))
+                    .setParameter("batchSize", batchSize)
+                    .findList();
+
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            Map<String, LogDelta> logDeltas = new LinkedHashMap<>();
+            Set<List<String>> dequeued = new LinkedHashSet<>();
+            List<SqlRow> enqueued = new ArrayList<>();
+
+            for (SqlRow event : events) {
+                String isbn = event.getString("item_isbn");
+                String readerId = event.getString("reader_id");
+                switch (CirculationEvent.Type.valueOf(event.getString("event_type"))) {
+                    case BORROWED:
+                        logDeltas.computeIfAbsent(isbn, key -> new LogDelta()).borrowals++;
+                        if (readerId != null) {
+                            dequeue(isbn, readerId, dequeued, enqueued);
+                        }
+                        break;
+                    case RETURNED:
+                        LogDelta delta = logDeltas.computeIfAbsent(isbn, key -> new LogDelta());
+                        delta.returns++;
+                        delta.borrowedDays += event.getInteger("borrowed_days");
+                        break;
+                    case RESERVED:
+                        enqueued.add(event);
+                        break;
+                    case CANCELLED:
+                        dequeue(isbn, readerId, dequeued, enqueued);
+                        break;
+                }
+            }
+
+            transaction.setBatchMode(true);
+
+            // Removals only apply to Reservations placed before this batch, so they are sent before the insertions
+            for (List<String> reservation : dequeued) {
+                ReservationEntry.dequeue(reservation.get(0), reservation.get(1));
+            }
+            transaction.flush();
+            for (SqlRow event : enqueued) {
+                ReservationEntry.enqueue(event.getString("item_isbn"), event.getString("reader_id"),
+                        event.getTimestamp("created_at"));
+            }
+            for (Map.Entry<String, LogDelta> entry : logDeltas.entrySet()) {
+                LogDelta delta = entry.getValue();
+                ItemTransactionLog.addCirculation(entry.getKey(), delta.borrowals, delta.borrowedDays,
+                        delta.returns);
+            }
+
+            SqlRow last = events.get(events.size() - 1);
+            saveCheckpoint(last.getLong("tx_id"), last.getLong("event_id"));
+
+            transaction.commit();
+            return events.size();
+        }
+    }
+
+
+    /**
+     * Private utility method to fold the removal of a Reader's Reservations of an Item into the pending changes of a
+     * batch. Reservations placed earlier in the batch are dropped before they are inserted, and Reservations placed
+     * before the batch are deleted.
+     * @param isbn
+     * @param readerId
+     * @param dequeued - pending removals, as ISBN and Reader Id pairs
+     * @param enqueued - pending reservation events
+     */
+    private static void dequeue(String isbn, String readerId, Set<List<String>> dequeued, List<SqlRow> enqueued) {
+        enqueued.removeIf(event -> isbn.equals(event.getString("item_isbn"))
+                && readerId.equals(event.getString("reader_id")));
+        List<String> reservation = new ArrayList<>(2);
+        reservation.add(isbn);
+        reservation.add(readerId);
+        dequeued.add(reservation);
+    }
+
+
+    /**
+     * Private utility method to lock the checkpoint of this projection for the rest of the current transaction, so
+     * that batches of concurrent projectors are serialized. The checkpoint is created if it is missing.
+     * @return - the checkpoint row
+     */
+    private static SqlRow lockCheckpoint() {
+        Ebean.createSqlUpdate("insert into projection_checkpoint (name, last_tx_id, last_event_id)" +
+                " values (:name, 0, 0) on conflict (name) do nothing")
+                .setParameter("name", CHECKPOINT)
+                .execute();
+        return Ebean.createSqlQuery("select last_tx_id, last_event_id from projection_checkpoint" +
+                " where name = :name for update")
+                .setParameter("name", CHECKPOINT)
+                .findOne();
+    }
+
+
+    /**
+     * Private utility method to advance the checkpoint of this projection to a given event
+     * @param txId - transaction Id of the event
+     * @param eventId - Id of the event
+     */
+    private static void saveCheckpoint(long txId, long eventId) {
+        Ebean.createSqlUpdate("update projection_checkpoint set last_tx_id = :txId, last_event_id = :eventId" +
+                " where name = :name")
+                .setParameter("txId", txId)
+                .setParameter("eventId", eventId)
+                .setParameter("name", CHECKPOINT)
+                .execute();
+    }
+
+
+    /**
+     * Combined effect of a batch of events on the Item Transaction Log of one Item
+     */
+    private static final class LogDelta {
+
+        int borrowals;
+
+        long borrowedDays;
+
+        int returns;
+
+    }
+
+
+}
@@ -0,0 +1,71 @@
+package dao;
+
+import utils.MyDateUtil;
+
+
+/**
+ * One entry of a batch circulation request, describing a single Item being borrowed or returned at the
+ * circulation desk.
+ */
+public class CirculationRequest {
+
+
+    /**
+     * ISBN of Item
+     */
+    private final String isbn;
+
+
+    /**
+     * Id of Reader borrowing the Item, or null for a return
+     */
+    private final String readerId;
+
+
+    /**
+     * Date on which the Item is borrowed or returned
+     */
+    private final MyDateUtil date;
+
+
+    /**
+     * Constructor method
+     * @param isbn
+     * @param readerId
+     * @param date
+     */
+    public CirculationRequest(String isbn, String readerId, MyDateUtil date) {
+        this.isbn = isbn;
+        this.readerId = readerId;
+        this.date = date;
+    }
+
+
+    /**
+     * Getter for ISBN
+     * @return
+     */
+    public String getIsbn() {
+        return isbn;
+    }
+
+
+    /**
+     * Getter for reader Id
+     * @return
+     */
+    public String getReaderId() {
+        return readerId;
+    }
+
+
+    /**
+     * Getter for date
+     * @return
+     */
+    public MyDateUtil getDate() {
+        return date;
+    }
+
+
+}
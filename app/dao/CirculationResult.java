@@ -0,0 +1,78 @@
+package dao;
+
+import java.math.BigDecimal;
+
+
+/**
+ * Outcome of a single entry of a batch circulation request.
+ */
+public class CirculationResult {
+
+
+    /**
+     * Possible outcomes of borrowing or returning a single Item
+     */
+    public enum Status {
+        BORROWED, RETURNED, NOT_FOUND, UNAVAILABLE, NOT_BORROWED, READER_NOT_FOUND
+    }
+
+
+    /**
+     * ISBN of Item
+     */
+    private final String isbn;
+
+
+    /**
+     * Outcome for the Item
+     */
+    private final Status status;
+
+
+    /**
+     * Late item return fee to be paid by the Reader, or null if the Item was not returned
+     */
+    private final BigDecimal fee;
+
+
+    /**
+     * Constructor method
+     * @param isbn
+     * @param status
+     * @param fee
+     */
+    public CirculationResult(String isbn, Status status, BigDecimal fee) {
+        this.isbn = isbn;
+        this.status = status;
+        this.fee = fee;
+    }
+
+
+    /**
+     * Getter for ISBN
+     * @return
+     */
+    public String getIsbn() {
+        return isbn;
+    }
+
+
+    /**
+     * Getter for status
+     * @return
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+
+    /**
+     * Getter for fee
+     * @return
+     */
+    public BigDecimal getFee() {
+        return fee;
+    }
+
+
+}
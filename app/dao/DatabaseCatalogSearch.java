@@ -0,0 +1,105 @@
+package dao;
+
+import io.ebean.Ebean;
+import io.ebean.SqlRow;
+import models.LibraryItem;
+
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Implementation of the Catalog Search Interface
+ * Searches the generated search_vector column of library_item through its GIN index, so that catalogs too large to
+ * be indexed in the heap can be searched. Every query word is matched as a prefix, and Items are ranked by ts_rank,
+ * which weights title matches above people, and people above other details.
+ * Titles which are similar to the query, but do not match it (e.g. misspelt queries), are found through the trigram
+ * index on the lower-cased title, and ranked by their similarity.
+ * The search column is maintained by the database itself, so writes to Items need no further work.
+ * @Singleton annotation is used to indicate to Guice that this class should only instantiate a single instance
+ * for entire application runtime.
+ */
+@Singleton
+public class DatabaseCatalogSearch implements CatalogSearch {
+
+
+    /**
+     * Default constructor required by Guice
+     */
+    public DatabaseCatalogSearch() {
+    }
+
+
+    /**
+     * Method to search all Library Items for the words of a query, with a single query using the full-text and
+     * trigram indexes
+     * @param query - words to be searched for, each of which may be the prefix of a word
+     * @param limit - maximum number of Items to be returned
+     * @return - the Items matching every word of the query or with a title similar to it, most relevant first
+     */
+    @Override
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> words = new LinkedHashSet<>(InMemoryCatalogSearch.tokenize(query));
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> prefixes = new ArrayList<>(words.size());
+        for (String word : words) {
+            prefixes.add(word + ":*");
+        }
+        String text = String.join(" ", words);
+
+        List<SqlRow> rows = Ebean.createSqlQuery("select isbn, item_type, title," +
+                " ts_rank(search_vector, query) + similarity(lower(title), :text) as score" +
+                " from library_item, to_tsquery('simple', :tsQuery) query" +
+                " where search_vector @@ query or lower(title) % :text" +
+                " order by score desc, title limit :limit")
+                .setParameter("text", text)
+                .setParameter("tsQuery", String.join(" & ", prefixes))
+                .setParameter("limit", limit)
+                .findList();
+
+        List<SearchHit> hits = new ArrayList<>(rows.size());
+        for (SqlRow row : rows) {
+            hits.add(new SearchHit(row.getString("isbn"), row.getString("item_type"), row.getString("title"),
+                    row.getDouble("score")));
+        }
+        return hits;
+    }
+
+
+    /**
+     * Method to tell whether searches return results for all Items, which is always the case as the database is
+     * searched directly
+     * @return
+     */
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+
+    /**
+     * Method invoked after an Item has been inserted or updated. Does nothing, as the search column is generated by
+     * the database.
+     * @param item
+     */
+    @Override
+    public void index(LibraryItem item) {
+    }
+
+
+    /**
+     * Method invoked after an Item has been deleted. Does nothing, as the search column is deleted with the Item.
+     * @param isbn
+     */
+    @Override
+    public void remove(String isbn) {
+    }
+
+
+}
@@ -0,0 +1,32 @@
+package dao;
+
+import akka.actor.ActorSystem;
+import play.libs.concurrent.CustomExecutionContext;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+
+/**
+ * Custom Execution Context on which all blocking database (Ebean/JDBC) work is executed, so that slow queries do
+ * not starve Play's default dispatcher which accepts requests and renders responses.
+ * Backed by the "database.dispatcher" Akka dispatcher configured in application.conf, whose thread pool is sized
+ * to the JDBC connection pool.
+ * @Singleton annotation is used to indicate to Guice that this class should only instantiate a single instance
+ * for entire application runtime.
+ */
+@Singleton
+public class DatabaseExecutionContext extends CustomExecutionContext {
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve the Akka ActorSystem
+     * @param actorSystem - Actor System from which the database dispatcher is looked up
+     */
+    @Inject
+    public DatabaseExecutionContext(ActorSystem actorSystem) {
+        super(actorSystem, "database.dispatcher");
+    }
+
+
+}
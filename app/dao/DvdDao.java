@@ -6,6 +6,9 @@ import models.Dvd;
 
 import javax.persistence.EntityExistsException;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.OptimisticLockException;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.Set;
 
 
@@ -23,13 +26,21 @@ public interface DvdDao {
 
     Set<Dvd> getAllDvd();
 
+    CatalogSnapshot getAllDvdSnapshot();
+
+    Page<Dvd> findPage(PageCursor after, String sort, int limit);
+
     Dvd getDvdByIsbn(String isbn) throws EntityNotFoundException;
 
     void insertDvd(Dvd dvd) throws MaximumCapacityException, EntityExistsException;
 
-    void updateDvd(Dvd dvd) throws EntityNotFoundException;
+    BulkInsertResult insertDvds(Iterator<Dvd> dvds);
+
+    void updateDvd(Dvd dvd) throws EntityNotFoundException, OptimisticLockException;
+
+    void deleteDvd(String isbn) throws EntityNotFoundException;
 
-    Dvd deleteDvd(String isbn) throws EntityNotFoundException;
+    BulkDeleteResult deleteDvds(Collection<String> isbns);
 
 
 }
@@ -2,13 +2,19 @@ package dao;
 
 import exceptions.MaximumCapacityException;
 import io.ebean.Ebean;
+import io.ebean.Transaction;
 import models.Dvd;
 import models.ItemTransactionLog;
-import models.Reservation;
+import models.LibraryItem;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.persistence.EntityExistsException;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.OptimisticLockException;
+import java.sql.Date;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.Set;
 
 
@@ -23,19 +29,45 @@ public class DvdDaoImpl implements DvdDao{
 
 
     /**
-     * Default constructor required by Guice
+     * Cache in front of lookups of Dvd by ISBN
      */
-    public DvdDaoImpl() {
+    private final CatalogCache catalogCache;
+
+
+    /**
+     * Inventory counters, used to enforce and report the library's capacity for Dvds
+     */
+    private final InventoryDao inventoryDao;
+
+
+    /**
+     * Catalog search, updated after every write to a Dvd
+     */
+    private final CatalogSearch catalogSearch;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve CatalogCache, InventoryDao and CatalogSearch
+     * dependency
+     * @param catalogCache
+     * @param inventoryDao
+     * @param catalogSearch
+     */
+    @Inject
+    public DvdDaoImpl(CatalogCache catalogCache, InventoryDao inventoryDao, CatalogSearch catalogSearch) {
+        this.catalogCache = catalogCache;
+        this.inventoryDao = inventoryDao;
+        this.catalogSearch = catalogSearch;
     }
 
 
     /**
-     * Getter for Dvd count from database
+     * Getter for Dvd count, read from the inventory counter of Dvds instead of counting them in the database
      * @return
      */
     @Override
     public int getDvdCount() {
-        return Ebean.find(Dvd.class).findCount();
+        return inventoryDao.getItemCount(Dvd.ITEM_TYPE);
     }
 
 
@@ -49,6 +81,30 @@ public class DvdDaoImpl implements DvdDao{
     }
 
 
+    /**
+     * Getter to retrieve a pre-serialized snapshot of all Dvd, which is only reloaded from the database after
+     * a Dvd has been written to.
+     * @return
+     */
+    @Override
+    public CatalogSnapshot getAllDvdSnapshot() {
+        return catalogCache.getDvdListing(this::getAllDvd);
+    }
+
+
+    /**
+     * Getter to retrieve a bounded page of Dvds using keyset pagination.
+     * @param after - cursor of the page to be fetched, or null for the first page
+     * @param sort - sort order of the first page, either by isbn or by title
+     * @param limit - maximum number of Dvds in the page
+     * @return
+     */
+    @Override
+    public Page<Dvd> findPage(PageCursor after, String sort, int limit) {
+        return Page.find(Dvd.class, after, sort, limit);
+    }
+
+
     /**
      * Getter to retrieve details of a particular Dvd by quering database using Dvd ISBN.
      * @param isbn
@@ -57,7 +113,7 @@ public class DvdDaoImpl implements DvdDao{
      */
     @Override
     public Dvd getDvdByIsbn(String isbn) throws EntityNotFoundException {
-        Dvd toReturn = Ebean.find(Dvd.class).where().idEq(isbn).findOne();
+        Dvd toReturn = catalogCache.getDvd(isbn, key -> Ebean.find(Dvd.class).where().idEq(key).findOne());
         if(toReturn == null)
             throw new EntityNotFoundException("Failed to find DVD for ISBN given.");
         else
@@ -66,56 +122,136 @@ public class DvdDaoImpl implements DvdDao{
 
 
     /**
-     * Method to insert details of new Dvd into database
+     * Method to insert details of new Dvd into database. Capacity is reserved on the inventory counter, and the
+     * Dvd and its Transaction Log are inserted, in one transaction.
      * @param dvd
      * @throws MaximumCapacityException - when library has reached maximum capacity of 50 Dvd
      * @throws EntityExistsException - when database already has a record of the given Dvd
      */
     @Override
     public void insertDvd(Dvd dvd) throws MaximumCapacityException, EntityExistsException {
-        if(getDvdCount()<=Dvd.MAX_LIBRARY_CAPACITY){
-            if(Ebean.find(Dvd.class).where().idEq(dvd.getISBN()).findCount()==0) {
-                dvd.save();
-                ItemTransactionLog.initLogForItem(dvd);
-                Reservation.initReservationsForItem(dvd);
-            }
-            else {
+        try (Transaction transaction = Ebean.beginTransaction()) {
+            inventoryDao.reserveCapacity(Dvd.ITEM_TYPE);
+            // ISBNs are unique across all Library Item types, which share the library_item table
+            if(Ebean.find(LibraryItem.class).where().idEq(dvd.getISBN()).findCount()!=0) {
                 throw new EntityExistsException("Failed to create new DVD. DVD already exists for given ISBN.");
             }
+            dvd.save();
+            ItemTransactionLog.initLogForItem(dvd);
+            transaction.commit();
         }
-        else {
-            throw new MaximumCapacityException("Library has reached maximum DVD capacity. " +
-                    "Please discard old/damaged DVDs.");
-        }
+        onDvdInserted(dvd);
     }
 
     /**
-     * Method to update the details of existing Dvd in the database.
+     * Method to import a stream of new Dvds into the database. Dvds are inserted together with their Transaction
+     * Logs in batches of BulkInserter.CHUNK_SIZE, one transaction per batch, and capacity for each batch is reserved
+     * on the inventory counter in the same transaction. Dvds which already exist, or which exceed the library's
+     * capacity, are skipped and reported.
+     * @param dvds - stream of Dvds, consumed lazily
+     * @return - summary of inserted and skipped Dvds
+     */
+    @Override
+    public BulkInsertResult insertDvds(Iterator<Dvd> dvds) {
+        return BulkInserter.insertAll(dvds, Dvd.ITEM_TYPE, inventoryDao, this::onDvdInserted);
+    }
+
+
+    /**
+     * Method to update the details of existing Dvd in the database, with a single conditional update statement.
+     * Items of every type share the library_item table, so the statement only matches a row of the Dvd type, and
+     * the version read by the client unless none was given. Whether the Dvd exists is only queried if no row was
+     * updated, to tell a missing Dvd apart from one which was updated concurrently. Every catalog field is written,
+     * so the Dvd given is indexed as it is now stored.
      * @param dvd
      * @throws EntityNotFoundException - when a Dvd is not found for the given ISBN in the database.
+     * @throws OptimisticLockException - when the Dvd was updated by another request since it was read.
      */
     @Override
-    public void updateDvd(Dvd dvd) throws EntityNotFoundException {
-        if(Ebean.find(Dvd.class).where().idEq(dvd.getISBN()).findCount()==0) {
-            throw new EntityNotFoundException("Failed to update DVD. DVD not found for given ISBN.");
-        }
-        else {
-            dvd.update();
+    public void updateDvd(Dvd dvd) throws EntityNotFoundException, OptimisticLockException {
+        try {
+            int updated = Ebean.createSqlUpdate("update library_item set title = :title, section = :section," +
+                    " pub_date = :pubDate, audio = cast(:audio as varchar[])," +
+                    " subtitles = cast(:subtitles as varchar[]), producer = :producer," +
+                    " actors = cast(:actors as varchar[]), version = version + 1" +
+                    " where isbn = :isbn and item_type = :itemType and (:version = 0 or version = :version)")
+                    .setParameter("title", dvd.getTitle())
+                    .setParameter("section", dvd.getSection())
+                    .setParameter("pubDate", dvd.getPubDate() == null ? null
+                            : Date.valueOf(dvd.getPubDate().toLocalDate()))
+                    .setParameter("audio", SqlArrays.toLiteral(dvd.getAudio()))
+                    .setParameter("subtitles", SqlArrays.toLiteral(dvd.getSubtitles()))
+                    .setParameter("producer", dvd.getProducer())
+                    .setParameter("actors", SqlArrays.toLiteral(dvd.getActors()))
+                    .setParameter("isbn", dvd.getISBN())
+                    .setParameter("itemType", Dvd.ITEM_TYPE)
+                    .setParameter("version", dvd.getVersion())
+                    .execute();
+            if (updated == 0) {
+                if (Ebean.find(Dvd.class).where().idEq(dvd.getISBN()).findCount() == 0) {
+                    throw new EntityNotFoundException("Failed to update DVD. DVD not found for given ISBN.");
+                }
+                throw new OptimisticLockException("Failed to update DVD. DVD was updated by another request.");
+            }
+            catalogSearch.index(dvd);
+        } finally {
+            catalogCache.invalidateDvd(dvd.getISBN());
         }
     }
 
 
     /**
-     * Method to delete details of a Dvd from the database.
+     * Method to delete details of a Dvd from the database, with a single delete statement whose affected row count
+     * tells whether the Dvd existed. The Dvd's Transaction Log and Reservations are removed by the same statement,
+     * through foreign keys which cascade on delete, and the inventory counter is decremented in the same
+     * transaction.
      * @param isbn
-     * @return
      * @throws EntityNotFoundException - when a Dvd is not found for the given ISBN in the database.
      */
     @Override
-    public Dvd deleteDvd(String isbn) throws EntityNotFoundException {
-        Dvd dvd = getDvdByIsbn(isbn);
-        dvd.delete();
-        return dvd;
+    public void deleteDvd(String isbn) throws EntityNotFoundException {
+        try (Transaction transaction = Ebean.beginTransaction()) {
+            if(Ebean.find(Dvd.class).where().idEq(isbn).delete()==0) {
+                throw new EntityNotFoundException("Failed to delete DVD. DVD not found for given ISBN.");
+            }
+            inventoryDao.releaseCapacity(Dvd.ITEM_TYPE, 1);
+            transaction.commit();
+        }
+        onDvdDeleted(isbn);
+    }
+
+
+    /**
+     * Method to discard many Dvds at once, e.g. damaged stock, in a single transaction. Dvds are deleted in chunks
+     * of BulkDeleter.CHUNK_SIZE ISBNs per statement, together with their Transaction Logs and Reservations.
+     * @param isbns - ISBNs of Dvds to be deleted
+     * @return - summary of deleted Dvds and of ISBNs for which no Dvd was found
+     */
+    @Override
+    public BulkDeleteResult deleteDvds(Collection<String> isbns) {
+        return BulkDeleter.deleteAll(Dvd.ITEM_TYPE, isbns, inventoryDao, this::onDvdDeleted);
+    }
+
+
+    /**
+     * Private utility method to discard the cached copy of a Dvd and add it to the catalog search, once its insert
+     * has been committed
+     * @param dvd
+     */
+    private void onDvdInserted(Dvd dvd) {
+        catalogCache.invalidateDvd(dvd.getISBN());
+        catalogSearch.index(dvd);
+    }
+
+
+    /**
+     * Private utility method to discard the cached copy of a Dvd and remove it from the catalog search, once its
+     * delete has been committed
+     * @param isbn
+     */
+    private void onDvdDeleted(String isbn) {
+        catalogCache.invalidateDvd(isbn);
+        catalogSearch.remove(isbn);
     }
 
 
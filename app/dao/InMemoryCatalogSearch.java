@@ -0,0 +1,377 @@
+package dao;
+
+import akka.actor.ActorSystem;
+import io.ebean.Ebean;
+import models.Book;
+import models.Dvd;
+import models.LibraryItem;
+import play.Logger;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+
+/**
+ * Implementation of the Catalog Search Interface
+ * Keeps an in-heap inverted index from every word of the searchable fields of all Library Items to the Items
+ * containing it, so that searches are answered without querying the database.
+ * Words are kept in sorted order, so that every query word also matches the words it is a prefix of. Each match is
+ * weighted by the field it was found in, and exact word matches outweigh prefix matches. An Item must match every
+ * query word, and Items are ranked by the sum of their weights.
+ * The index is built from the database once the application has started, and is then updated by the Book and Dvd
+ * Data Access Objects after every committed write.
+ * @Singleton annotation is used to indicate to Guice that this class should only instantiate a single instance
+ * for entire application runtime, so that all Data Access Objects update the same index.
+ */
+@Singleton
+public class InMemoryCatalogSearch implements CatalogSearch {
+
+
+    /**
+     * Weight of a word found in the title of an Item
+     */
+    private static final double TITLE_WEIGHT = 3;
+
+
+    /**
+     * Weight of a word found in the authors of a Book or the actors of a Dvd
+     */
+    private static final double PEOPLE_WEIGHT = 2;
+
+
+    /**
+     * Weight of a word found in the section, the publisher of a Book or the producer of a Dvd
+     */
+    private static final double DETAIL_WEIGHT = 1;
+
+
+    /**
+     * Factor applied to the weight of a word which a query word is only a prefix of
+     */
+    private static final double PREFIX_FACTOR = 0.5;
+
+
+    /**
+     * Delay after which a failed build of the index is retried
+     */
+    private static final FiniteDuration RETRY_DELAY = Duration.create(5, TimeUnit.SECONDS);
+
+
+    /**
+     * Inverted index from each word to the weight of the word in each Item containing it, keyed by ISBN
+     */
+    private final TreeMap<String, Map<String, Double>> postings = new TreeMap<>();
+
+
+    /**
+     * Indexed Items, keyed by ISBN, so that the words of an Item can be removed when it is written to
+     */
+    private final Map<String, IndexedItem> items = new HashMap<>();
+
+
+    /**
+     * Lock guarding the index, which allows concurrent searches while excluding writes
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+
+    /**
+     * Actor System whose scheduler runs the build of the index
+     */
+    private final ActorSystem actorSystem;
+
+
+    /**
+     * Execution Context on which the build of the index is executed
+     */
+    private final DatabaseExecutionContext dbExecutionContext;
+
+
+    /**
+     * Whether the index has been built from the database
+     */
+    private volatile boolean ready;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve the Akka ActorSystem and
+     * DatabaseExecutionContext, and schedules the build of the index.
+     * @param actorSystem - Actor System whose scheduler runs the build of the index
+     * @param dbExecutionContext - Execution Context on which the build of the index is executed
+     */
+    @Inject
+    public InMemoryCatalogSearch(ActorSystem actorSystem, DatabaseExecutionContext dbExecutionContext) {
+        this.actorSystem = actorSystem;
+        this.dbExecutionContext = dbExecutionContext;
+        scheduleBuild(Duration.Zero());
+    }
+
+
+    /**
+     * Method to search all Library Items for the words of a query
+     * @param query - words to be searched for, each of which may be the prefix of a word
+     * @param limit - maximum number of Items to be returned
+     * @return - the Items matching every word of the query, most relevant first
+     */
+    @Override
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> words = new LinkedHashSet<>(tokenize(query));
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            Map<String, Double> scores = null;
+            for (String word : words) {
+                Map<String, Double> wordScores = match(word);
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    scores.keySet().retainAll(wordScores.keySet());
+                    for (Map.Entry<String, Double> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + wordScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+            List<SearchHit> hits = new ArrayList<>(scores.size());
+            for (Map.Entry<String, Double> entry : scores.entrySet()) {
+                IndexedItem item = items.get(entry.getKey());
+                hits.add(new SearchHit(entry.getKey(), item.itemType, item.title, entry.getValue()));
+            }
+            hits.sort((a, b) -> a.getScore() != b.getScore() ? Double.compare(b.getScore(), a.getScore())
+                    : String.valueOf(a.getTitle()).compareTo(String.valueOf(b.getTitle())));
+            return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Method to tell whether the index has been built, and searches return results for all Items
+     * @return
+     */
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+
+    /**
+     * Method to add an Item to the index, replacing any previously indexed version of it.
+     * Invoked after the Item has been inserted or updated.
+     * @param item
+     */
+    @Override
+    public void index(LibraryItem item) {
+        lock.writeLock().lock();
+        try {
+            removeFromIndex(item.getISBN());
+            addToIndex(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Method to remove an Item from the index.
+     * Invoked after the Item has been deleted.
+     * @param isbn
+     */
+    @Override
+    public void remove(String isbn) {
+        lock.writeLock().lock();
+        try {
+            removeFromIndex(isbn);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Private utility method to schedule the build of the index, which is retried until it succeeds (e.g. once
+     * database evolutions have been applied)
+     * @param delay
+     */
+    private void scheduleBuild(FiniteDuration delay) {
+        actorSystem.scheduler().scheduleOnce(delay, () -> {
+            try {
+                build();
+            } catch (RuntimeException e) {
+                Logger.error("Failed to build catalog search index, retrying", e);
+                scheduleBuild(RETRY_DELAY);
+            }
+        }, dbExecutionContext);
+    }
+
+
+    /**
+     * Private utility method to build the index from all Items in the database.
+     * The write lock is held while the Items are read, so that writes committed meanwhile are applied after the
+     * build and never overwritten by it.
+     */
+    private void build() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            items.clear();
+            Ebean.find(LibraryItem.class).findEach(this::addToIndex);
+            ready = true;
+            Logger.info("Built catalog search index of {} items and {} words", items.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Private utility method to find the Items containing a word or a word it is a prefix of.
+     * Must be invoked while holding the read lock.
+     * @param word
+     * @return - the weight of the best matching word in each matching Item, keyed by ISBN
+     */
+    private Map<String, Double> match(String word) {
+        Map<String, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Map<String, Double>> posting
+                : postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+            double factor = posting.getKey().equals(word) ? 1 : PREFIX_FACTOR;
+            for (Map.Entry<String, Double> entry : posting.getValue().entrySet()) {
+                scores.merge(entry.getKey(), entry.getValue() * factor, Math::max);
+            }
+        }
+        return scores;
+    }
+
+
+    /**
+     * Private utility method to add the words of an Item to the index. Must be invoked while holding the write lock.
+     * @param item
+     */
+    private void addToIndex(LibraryItem item) {
+        Map<String, Double> words = new HashMap<>();
+        addWords(words, item.getTitle(), TITLE_WEIGHT);
+        addWords(words, item.getSection(), DETAIL_WEIGHT);
+        if (item instanceof Book) {
+            Book book = (Book) item;
+            addWords(words, book.getAuthors(), PEOPLE_WEIGHT);
+            addWords(words, book.getPublisher(), DETAIL_WEIGHT);
+        } else if (item instanceof Dvd) {
+            Dvd dvd = (Dvd) item;
+            addWords(words, dvd.getActors(), PEOPLE_WEIGHT);
+            addWords(words, dvd.getProducer(), DETAIL_WEIGHT);
+        }
+        items.put(item.getISBN(), new IndexedItem(item.getItemType(), item.getTitle(), words.keySet()));
+        for (Map.Entry<String, Double> entry : words.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>()).put(item.getISBN(), entry.getValue());
+        }
+    }
+
+
+    /**
+     * Private utility method to remove the words of an Item from the index, if it is indexed. Must be invoked while
+     * holding the write lock.
+     * @param isbn
+     */
+    private void removeFromIndex(String isbn) {
+        IndexedItem indexed = items.remove(isbn);
+        if (indexed == null) {
+            return;
+        }
+        for (String word : indexed.words) {
+            Map<String, Double> posting = postings.get(word);
+            posting.remove(isbn);
+            if (posting.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+
+    /**
+     * Private utility method to add the words of several field values to the words of an Item
+     * @param words - weight of each word of the Item
+     * @param values - field values, may be null
+     * @param weight - weight of the field
+     */
+    private static void addWords(Map<String, Double> words, Collection<String> values, double weight) {
+        if (values != null) {
+            for (String value : values) {
+                addWords(words, value, weight);
+            }
+        }
+    }
+
+
+    /**
+     * Private utility method to add the words of a field value to the words of an Item. A word found in several
+     * fields is weighted by the sum of their weights, but a field counts only once per word.
+     * @param words - weight of each word of the Item
+     * @param value - field value, may be null
+     * @param weight - weight of the field
+     */
+    private static void addWords(Map<String, Double> words, String value, double weight) {
+        for (String word : new LinkedHashSet<>(tokenize(value))) {
+            words.merge(word, weight, Double::sum);
+        }
+    }
+
+
+    /**
+     * Utility method to split text into lower-case words of letters and digits
+     * @param text - text to be split, may be null
+     * @return
+     */
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text != null) {
+            for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+
+    /**
+     * Indexed summary of an Item, holding what is returned in search hits and the words under which it is indexed
+     */
+    private static final class IndexedItem {
+
+        private final String itemType;
+
+        private final String title;
+
+        private final Collection<String> words;
+
+        IndexedItem(String itemType, String title, Collection<String> words) {
+            this.itemType = itemType;
+            this.title = title;
+            this.words = new ArrayList<>(words);
+        }
+
+    }
+
+
+}
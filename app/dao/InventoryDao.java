@@ -0,0 +1,28 @@
+package dao;
+
+import com.google.inject.ImplementedBy;
+import exceptions.MaximumCapacityException;
+
+
+/**
+ * Interface that declares the contract for behavior that all Inventory Data Access Object Implementations should
+ * define and implement. Inventory counters track the number of Library Items of each type, so that the library's
+ * capacity is enforced and reported without counting all Items.
+ * Capacity is reserved and released within the caller's current transaction, if any, so that counters change
+ * together with the Items they count.
+ *
+ * @ImplementedBy tells Guice which classes (InventoryDaoImpl.class) implements this interface.
+ *
+ */
+@ImplementedBy(InventoryDaoImpl.class)
+public interface InventoryDao {
+
+    int getItemCount(String itemType);
+
+    void reserveCapacity(String itemType) throws MaximumCapacityException;
+
+    int reserveCapacityUpTo(String itemType, int count);
+
+    void releaseCapacity(String itemType, int count);
+
+}
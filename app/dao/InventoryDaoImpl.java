@@ -0,0 +1,195 @@
+package dao;
+
+import exceptions.MaximumCapacityException;
+import io.ebean.Ebean;
+import io.ebean.SqlRow;
+import io.ebean.Transaction;
+import io.ebean.TransactionCallbackAdapter;
+import models.Book;
+import models.Dvd;
+
+import javax.inject.Singleton;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Implementation of the Inventory Dao Interface
+ * Keeps one inventory_counter row per Library Item type, which is the authoritative count and is only ever changed
+ * with conditional, atomic updates, so that concurrent inserts can never exceed the library's capacity.
+ * An in-memory mirror of each counter is adjusted after every committed change, so that the count can be read in
+ * constant time without a query.
+ * @Singleton annotation is used to indicate to Guice that this class should only instantiate a single instance
+ * for entire application runtime, so that all Data Access Objects share the same mirror.
+ */
+@Singleton
+public class InventoryDaoImpl implements InventoryDao {
+
+
+    /**
+     * Maximum library capacity of each Library Item type, keyed by Item type
+     */
+    private static final Map<String, Integer> MAX_CAPACITY = new HashMap<>();
+
+    static {
+        MAX_CAPACITY.put(Book.ITEM_TYPE, Book.MAX_LIBRARY_CAPACITY);
+        MAX_CAPACITY.put(Dvd.ITEM_TYPE, Dvd.MAX_LIBRARY_CAPACITY);
+    }
+
+
+    /**
+     * In-memory mirror of the committed counters, keyed by Item type. Loaded from the database on first use.
+     */
+    private final Map<String, AtomicInteger> mirror = new ConcurrentHashMap<>();
+
+
+    /**
+     * Default constructor required by Guice
+     */
+    public InventoryDaoImpl() {
+    }
+
+
+    /**
+     * Getter for number of Library Items of a type held by the library, read from the in-memory mirror
+     * @param itemType - type of Library Item, either Book or Dvd
+     * @return
+     */
+    @Override
+    public int getItemCount(String itemType) {
+        return counterFor(itemType).get();
+    }
+
+
+    /**
+     * Method to reserve capacity for one new Library Item, with a single conditional update which only succeeds
+     * while the library is below its maximum capacity for the Item type.
+     * @param itemType - type of Library Item, either Book or Dvd
+     * @throws MaximumCapacityException - when the library has reached maximum capacity for the Item type
+     */
+    @Override
+    public void reserveCapacity(String itemType) throws MaximumCapacityException {
+        counterFor(itemType);
+        int updated = Ebean.createSqlUpdate("update inventory_counter set item_count = item_count + 1" +
+                " where item_type = :itemType and item_count + 1 <= :maxCapacity")
+                .setParameter("itemType", itemType)
+                .setParameter("maxCapacity", maxCapacityFor(itemType))
+                .execute();
+        if (updated == 0) {
+            throw new MaximumCapacityException("Library has reached maximum " + itemType + " capacity. " +
+                    "Please discard old/damaged items.");
+        }
+        afterCommit(itemType, 1);
+    }
+
+
+    /**
+     * Method to reserve capacity for up to a given number of new Library Items. The counter row is locked for the
+     * rest of the caller's transaction, so concurrent reservations are serialized.
+     * @param itemType - type of Library Item, either Book or Dvd
+     * @param count - number of Items for which capacity is requested
+     * @return - number of Items for which capacity was reserved, which is less than requested if the library
+     * reaches its maximum capacity
+     */
+    @Override
+    public int reserveCapacityUpTo(String itemType, int count) {
+        counterFor(itemType);
+        SqlRow counter = Ebean.createSqlQuery("select item_count from inventory_counter" +
+                " where item_type = :itemType for update")
+                .setParameter("itemType", itemType)
+                .findOne();
+        int current = counter == null ? maxCapacityFor(itemType) : counter.getInteger("item_count");
+        int reserved = Math.max(Math.min(count, maxCapacityFor(itemType) - current), 0);
+        if (reserved > 0) {
+            Ebean.createSqlUpdate("update inventory_counter set item_count = item_count + :reserved" +
+                    " where item_type = :itemType")
+                    .setParameter("reserved", reserved)
+                    .setParameter("itemType", itemType)
+                    .execute();
+            afterCommit(itemType, reserved);
+        }
+        return reserved;
+    }
+
+
+    /**
+     * Method to release the capacity of deleted Library Items
+     * @param itemType - type of Library Item, either Book or Dvd
+     * @param count - number of deleted Items
+     */
+    @Override
+    public void releaseCapacity(String itemType, int count) {
+        if (count <= 0) {
+            return;
+        }
+        counterFor(itemType);
+        Ebean.createSqlUpdate("update inventory_counter set item_count = greatest(item_count - :count, 0)" +
+                " where item_type = :itemType")
+                .setParameter("count", count)
+                .setParameter("itemType", itemType)
+                .execute();
+        afterCommit(itemType, -count);
+    }
+
+
+    /**
+     * Private utility method to get the mirror of a counter, loading it on first use. The counter row is created
+     * from the current Item count if it is missing.
+     * Invoked before a counter is changed, so that the loaded value never includes uncommitted changes.
+     * @param itemType
+     * @return
+     */
+    private AtomicInteger counterFor(String itemType) {
+        return mirror.computeIfAbsent(itemType, type -> {
+            Ebean.createSqlUpdate("insert into inventory_counter (item_type, item_count)" +
+                    " select :itemType, count(*) from library_item where item_type = :itemType" +
+                    " on conflict (item_type) do nothing")
+                    .setParameter("itemType", type)
+                    .execute();
+            SqlRow counter = Ebean.createSqlQuery("select item_count from inventory_counter" +
+                    " where item_type = :itemType")
+                    .setParameter("itemType", type)
+                    .findOne();
+            return new AtomicInteger(counter.getInteger("item_count"));
+        });
+    }
+
+
+    /**
+     * Private utility method to apply a change to the mirror of a counter once the caller's transaction has
+     * committed, or immediately if there is no transaction.
+     * @param itemType
+     * @param delta - change in number of Items
+     */
+    private void afterCommit(String itemType, int delta) {
+        Transaction transaction = Ebean.currentTransaction();
+        if (transaction == null) {
+            counterFor(itemType).addAndGet(delta);
+        } else {
+            transaction.register(new TransactionCallbackAdapter() {
+                @Override
+                public void postCommit() {
+                    counterFor(itemType).addAndGet(delta);
+                }
+            });
+        }
+    }
+
+
+    /**
+     * Private utility method to resolve the maximum library capacity for a given Item type
+     * @param itemType
+     * @return
+     */
+    private static int maxCapacityFor(String itemType) {
+        Integer maxCapacity = MAX_CAPACITY.get(itemType);
+        if (maxCapacity == null) {
+            throw new IllegalArgumentException("Unknown Item type " + itemType);
+        }
+        return maxCapacity;
+    }
+
+
+}
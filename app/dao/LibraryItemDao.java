@@ -0,0 +1,27 @@
+package dao;
+
+import com.google.inject.ImplementedBy;
+import models.LibraryItem;
+import utils.MyDateUtil;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.List;
+
+
+/**
+ * Interface that declares the contract for behavior that all Library Item Data Access Object Implementations should
+ * define and implement. Library Items of every type are looked up without the Client having to know their type.
+ *
+ * @ImplementedBy tells Guice which classes (LibraryItemDaoImpl.class) implements this interface.
+ *
+ */
+@ImplementedBy(LibraryItemDaoImpl.class)
+public interface LibraryItemDao {
+
+    int getItemCount();
+
+    LibraryItem getItemByIsbn(String isbn) throws EntityNotFoundException;
+
+    List<Loan> getLoansOf(String readerId, MyDateUtil asOf) throws EntityNotFoundException;
+
+}
@@ -0,0 +1,88 @@
+package dao;
+
+import io.ebean.Ebean;
+import models.LibraryItem;
+import models.Reader;
+import utils.MyDateUtil;
+
+import javax.inject.Singleton;
+import javax.persistence.EntityNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Implementation of the Library Item Dao Interface
+ * Looks up Library Items of any type in the single library_item table. Ebean resolves the type of each Item from
+ * its item_type discriminator column, so Books are returned as Book and Dvds as Dvd.
+ * @Singleton annotation is used to indicate to Guice that this class should only instantiate a single instance
+ * for entire application runtime.
+ */
+@Singleton
+public class LibraryItemDaoImpl implements LibraryItemDao {
+
+
+    /**
+     * Default constructor required by Guice
+     */
+    public LibraryItemDaoImpl() {
+    }
+
+
+    /**
+     * Getter for count of Library Items of all types from database
+     * @return
+     */
+    @Override
+    public int getItemCount() {
+        return Ebean.find(LibraryItem.class).findCount();
+    }
+
+
+    /**
+     * Getter to retrieve details of a Library Item of any type, given its ISBN, with a single primary key lookup
+     * @param isbn
+     * @return
+     * @throws EntityNotFoundException - when no Library Item is found for the given ISBN.
+     */
+    @Override
+    public LibraryItem getItemByIsbn(String isbn) throws EntityNotFoundException {
+        LibraryItem toReturn = Ebean.find(LibraryItem.class, isbn);
+        if (toReturn == null)
+            throw new EntityNotFoundException("Failed to find Library Item for ISBN given.");
+        else
+            return toReturn;
+    }
+
+
+    /**
+     * Getter to retrieve the Library Items of every type currently borrowed by a Reader, with their due dates and
+     * the late fees accrued by a given date, oldest loan first.
+     * Answered by a single query on the partial index of borrowed Items by current Reader. Whether the Reader exists
+     * is only queried if the Reader has no loans.
+     * @param readerId - Id of Reader
+     * @param asOf - date by which late fees are accrued, usually today
+     * @return
+     * @throws EntityNotFoundException - when no Reader is found for the given reader Id.
+     */
+    @Override
+    public List<Loan> getLoansOf(String readerId, MyDateUtil asOf) throws EntityNotFoundException {
+        List<LibraryItem> borrowed = Ebean.find(LibraryItem.class).where()
+                .eq("currentReader.readerId", readerId)
+                .orderBy("borrowedOn")
+                .findList();
+        if (borrowed.isEmpty() && Ebean.find(Reader.class).where().idEq(readerId).findCount() == 0) {
+            throw new EntityNotFoundException("Failed to find Reader for Reader Id given.");
+        }
+        List<Loan> loans = new ArrayList<>(borrowed.size());
+        for (LibraryItem item : borrowed) {
+            int dueEpochDay = item.getBorrowedOn().getEpochDay() + item.getMaxBorrowalPeriod();
+            loans.add(new Loan(item.getISBN(), item.getItemType(), item.getTitle(), item.getBorrowedOn(),
+                    MyDateUtil.fromEpochDay(dueEpochDay), Math.max(asOf.getEpochDay() - dueEpochDay, 0),
+                    item.calculateLateFee(asOf)));
+        }
+        return loans;
+    }
+
+
+}
@@ -0,0 +1,142 @@
+package dao;
+
+import utils.MyDateUtil;
+
+import java.math.BigDecimal;
+
+
+/**
+ * A Library Item currently borrowed by a Reader, with its due date and the late fee accrued so far. Returned to the
+ * Client as an element of the loans response.
+ */
+public class Loan {
+
+
+    /**
+     * ISBN of Item
+     */
+    private final String isbn;
+
+
+    /**
+     * Type of Item, either Book or Dvd
+     */
+    private final String itemType;
+
+
+    /**
+     * Title of Item
+     */
+    private final String title;
+
+
+    /**
+     * Date on which the Item was borrowed
+     */
+    private final MyDateUtil borrowedOn;
+
+
+    /**
+     * Date by which the Item should be returned to avoid late fees
+     */
+    private final MyDateUtil dueOn;
+
+
+    /**
+     * Number of days by which the Item is overdue, or 0 if it is not overdue
+     */
+    private final int overdueBy;
+
+
+    /**
+     * Late fee accrued so far, to be paid if the Item were returned today
+     */
+    private final BigDecimal fee;
+
+
+    /**
+     * Constructor method
+     * @param isbn
+     * @param itemType
+     * @param title
+     * @param borrowedOn
+     * @param dueOn
+     * @param overdueBy
+     * @param fee
+     */
+    public Loan(String isbn, String itemType, String title, MyDateUtil borrowedOn, MyDateUtil dueOn, int overdueBy,
+                BigDecimal fee) {
+        this.isbn = isbn;
+        this.itemType = itemType;
+        this.title = title;
+        this.borrowedOn = borrowedOn;
+        this.dueOn = dueOn;
+        this.overdueBy = overdueBy;
+        this.fee = fee;
+    }
+
+
+    /**
+     * Getter for ISBN
+     * @return
+     */
+    public String getIsbn() {
+        return isbn;
+    }
+
+
+    /**
+     * Getter for Item type
+     * @return
+     */
+    public String getItemType() {
+        return itemType;
+    }
+
+
+    /**
+     * Getter for title
+     * @return
+     */
+    public String getTitle() {
+        return title;
+    }
+
+
+    /**
+     * Getter for date on which the Item was borrowed
+     * @return
+     */
+    public MyDateUtil getBorrowedOn() {
+        return borrowedOn;
+    }
+
+
+    /**
+     * Getter for due date
+     * @return
+     */
+    public MyDateUtil getDueOn() {
+        return dueOn;
+    }
+
+
+    /**
+     * Getter for number of days by which the Item is overdue
+     * @return
+     */
+    public int getOverdueBy() {
+        return overdueBy;
+    }
+
+
+    /**
+     * Getter for accrued late fee
+     * @return
+     */
+    public BigDecimal getFee() {
+        return fee;
+    }
+
+
+}
@@ -0,0 +1,193 @@
+package dao;
+
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import com.typesafe.config.Config;
+import io.ebean.Ebean;
+import io.ebean.SqlRow;
+import io.ebean.Transaction;
+import notifications.NotificationSink;
+import notifications.ReaderNotification;
+import play.Logger;
+import play.inject.ApplicationLifecycle;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Background dispatcher which drains the notification outbox written by Item returns, so that notifying Readers
+ * never adds to the latency of a return.
+ * Pending notifications are claimed in batches on the Akka scheduler, at the interval configured in the
+ * "library.notifications" section of application.conf. Each run is only scheduled once the previous one has
+ * finished, so that a slow sink never piles up further runs waiting on the database dispatcher. The notifications
+ * of each Reader within a batch are combined into one, handed to the configured NotificationSink, and removed from
+ * the outbox in the same transaction.
+ * Batches are claimed with FOR UPDATE SKIP LOCKED, so that several application instances can drain the outbox
+ * concurrently without blocking each other or delivering the same notification twice. A notification is only
+ * removed once the sink has accepted it, so delivery is at-least-once.
+ * @Singleton annotation is used to indicate to Guice that this class should only instantiate a single instance
+ * for entire application runtime. It is bound eagerly in Module, so that dispatching starts with the application.
+ */
+@Singleton
+public class NotificationDispatcher {
+
+
+    /**
+     * Maximum number of notifications claimed per transaction
+     */
+    private final int batchSize;
+
+
+    /**
+     * Sink to which notifications are delivered
+     */
+    private final NotificationSink sink;
+
+
+    /**
+     * Interval between the end of a dispatch run and the start of the next one
+     */
+    private final FiniteDuration interval;
+
+
+    /**
+     * Actor System whose scheduler runs the dispatch task
+     */
+    private final ActorSystem actorSystem;
+
+
+    /**
+     * Execution Context on which the dispatch task is executed
+     */
+    private final DatabaseExecutionContext dbExecutionContext;
+
+
+    /**
+     * Handle of the next scheduled dispatch run, cancelled when the application stops
+     */
+    private volatile Cancellable schedule;
+
+
+    /**
+     * Whether the application is stopping, after which no further run is scheduled
+     */
+    private volatile boolean stopped;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve the Akka ActorSystem, DatabaseExecutionContext,
+     * application configuration, NotificationSink and ApplicationLifecycle, and schedules the dispatch task.
+     * @param actorSystem - Actor System whose scheduler runs the dispatch task
+     * @param dbExecutionContext - Execution Context on which the dispatch task is executed
+     * @param config - application configuration containing the "library.notifications" settings
+     * @param sink - Notification Sink to which notifications are delivered
+     * @param lifecycle - lifecycle of the application, used to stop the dispatch task on shutdown
+     */
+    @Inject
+    public NotificationDispatcher(ActorSystem actorSystem, DatabaseExecutionContext dbExecutionContext,
+                                  Config config, NotificationSink sink, ApplicationLifecycle lifecycle) {
+        this.batchSize = config.getInt("library.notifications.batch-size");
+        this.sink = sink;
+        this.interval = Duration.create(
+                config.getDuration("library.notifications.interval", TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+        this.actorSystem = actorSystem;
+        this.dbExecutionContext = dbExecutionContext;
+        scheduleNext();
+        lifecycle.addStopHook(() -> {
+            stopped = true;
+            schedule.cancel();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+
+    /**
+     * Method to deliver all pending notifications of the outbox, one batch per transaction
+     * @return - the number of outbox entries delivered
+     * @throws Exception - when the sink fails to deliver a batch, which then stays in the outbox
+     */
+    public synchronized int dispatchPending() throws Exception {
+        int dispatched = 0;
+        int delivered;
+        do {
+            delivered = dispatchBatch();
+            dispatched += delivered;
+        } while (delivered == batchSize);
+        return dispatched;
+    }
+
+
+    /**
+     * Private utility method to schedule the next dispatch run after the configured interval, unless the
+     * application is stopping
+     */
+    private void scheduleNext() {
+        if (!stopped) {
+            schedule = actorSystem.scheduler().scheduleOnce(interval, this::dispatchPendingAndReschedule,
+                    dbExecutionContext);
+        }
+    }
+
+
+    /**
+     * Private utility method run by the scheduler, which logs failures and schedules the next run once this one has
+     * finished
+     */
+    private void dispatchPendingAndReschedule() {
+        try {
+            dispatchPending();
+        } catch (Exception e) {
+            Logger.error("Failed to dispatch notifications", e);
+        } finally {
+            scheduleNext();
+        }
+    }
+
+
+    /**
+     * Private utility method to claim, deliver and remove the next batch of pending notifications in one transaction
+     * @return - the number of outbox entries delivered
+     * @throws Exception - when the sink fails to deliver the batch
+     */
+    private int dispatchBatch() throws Exception {
+        try (Transaction transaction = Ebean.beginTransaction()) {
+
+            List<SqlRow> pending = Ebean.createSqlQuery("select outbox_id, reader_id, item_isbn, queue_position" +
+                    " from notification_outbox order by outbox_id limit :batchSize for update skip locked")
+                    .setParameter("batchSize", batchSize)
+                    .findList();
+
+            if (pending.isEmpty()) {
+                return 0;
+            }
+
+            Map<String, ReaderNotification> byReader = new LinkedHashMap<>();
+            List<Long> outboxIds = new ArrayList<>(pending.size());
+            for (SqlRow row : pending) {
+                byReader.computeIfAbsent(row.getString("reader_id"), ReaderNotification::new)
+                        .addItem(row.getString("item_isbn"), row.getInteger("queue_position"));
+                outboxIds.add(row.getLong("outbox_id"));
+            }
+
+            sink.deliver(new ArrayList<>(byReader.values()));
+
+            Ebean.createSqlUpdate("delete from notification_outbox where outbox_id in (:outboxIds)")
+                    .setParameter("outboxIds", outboxIds)
+                    .execute();
+
+            transaction.commit();
+            return pending.size();
+        }
+    }
+
+
+}
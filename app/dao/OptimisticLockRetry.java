@@ -0,0 +1,99 @@
+package dao;
+
+import play.Logger;
+
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+
+/**
+ * Utility class used by Data Access Object Implementations to re-run read-modify-write operations which fail with
+ * an OptimisticLockException because another request updated the same @Version'ed record concurrently.
+ * Retries are bounded, and each retry waits for an exponentially growing, jittered backoff period.
+ */
+public final class OptimisticLockRetry {
+
+
+    /**
+     * Maximum number of times an operation is attempted before the conflict is propagated to the caller
+     */
+    public static final int MAX_ATTEMPTS = 5;
+
+
+    /**
+     * Backoff period before the first retry, in milliseconds. Doubled on every subsequent retry.
+     */
+    private static final long BASE_BACKOFF_MILLIS = 10;
+
+
+    /**
+     * Upper bound for the backoff period between two attempts, in milliseconds
+     */
+    private static final long MAX_BACKOFF_MILLIS = 200;
+
+
+    /**
+     * Number of optimistic locking conflicts detected since application start
+     */
+    private static final AtomicLong conflictCount = new AtomicLong();
+
+
+    /**
+     * Private constructor, since this class only exposes static utility methods
+     */
+    private OptimisticLockRetry() {
+    }
+
+
+    /**
+     * Method to execute an operation, retrying it on optimistic locking conflicts.
+     * The operation should re-read the records it modifies, so that each attempt works on fresh versions.
+     * @param operation - the read-modify-write operation to be executed
+     * @param <T> - type of value returned by the operation
+     * @return - the value returned by the first successful attempt
+     * @throws OptimisticLockException - when the operation still conflicts after MAX_ATTEMPTS attempts
+     */
+    public static <T> T withRetry(Supplier<T> operation) throws OptimisticLockException {
+        long backoff = BASE_BACKOFF_MILLIS;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (OptimisticLockException e) {
+                conflictCount.incrementAndGet();
+                if (attempt >= MAX_ATTEMPTS) {
+                    Logger.warn("Giving up after {} conflicting attempts", attempt);
+                    throw e;
+                }
+                sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+
+    /**
+     * Getter for number of optimistic locking conflicts detected since application start
+     * @return
+     */
+    public static long getConflictCount() {
+        return conflictCount.get();
+    }
+
+
+    /**
+     * Private utility method to wait for the backoff period before the next attempt
+     * @param millis
+     */
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticLockException("Interrupted while waiting to retry conflicting update.");
+        }
+    }
+
+
+}
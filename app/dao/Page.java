@@ -0,0 +1,104 @@
+package dao;
+
+import io.ebean.Ebean;
+import io.ebean.ExpressionList;
+import models.LibraryItem;
+
+import java.util.List;
+
+
+/**
+ * A bounded page of Library Items fetched with keyset pagination, together with the cursor from which the next page
+ * can be fetched.
+ * @param <T> - type of Library Item in the page
+ */
+public final class Page<T extends LibraryItem> {
+
+
+    /**
+     * Maximum number of Items which can be requested in a single page
+     */
+    public static final int MAX_LIMIT = 100;
+
+
+    /**
+     * Items in this page, in sort order
+     */
+    private final List<T> items;
+
+
+    /**
+     * Encoded cursor of the next page, or null if this is the last page
+     */
+    private final String next;
+
+
+    /**
+     * Private constructor, pages are created through find()
+     * @param items
+     * @param next
+     */
+    private Page(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+
+    /**
+     * Method to fetch a page of Library Items of the given type.
+     * One row more than the limit is fetched, to find out whether a next page exists without a count query.
+     * Pages sorted by title continue after the cursor with a row comparison on (title, isbn), which Postgres answers
+     * from the (item_type, title, isbn) index together with the discriminator of the Item type.
+     * @param itemClass - type of Library Item to be listed
+     * @param after - cursor of the page to be fetched, or null for the first page
+     * @param sort - sort order for the first page, either PageCursor.SORT_BY_ISBN or PageCursor.SORT_BY_TITLE.
+     *             Subsequent pages keep the sort order of their cursor.
+     * @param limit - maximum number of Items in the page
+     * @param <T> - type of Library Item
+     * @return
+     */
+    public static <T extends LibraryItem> Page<T> find(Class<T> itemClass, PageCursor after, String sort, int limit) {
+        String pageSort = after != null ? after.getSort() : sort;
+        boolean byTitle = PageCursor.SORT_BY_TITLE.equals(pageSort);
+
+        ExpressionList<T> query = Ebean.find(itemClass).where();
+        if (after != null) {
+            if (byTitle) {
+                query.raw("(title, isbn) > (?, ?)", after.getTitle(), after.getIsbn());
+            } else {
+                query.gt("ISBN", after.getIsbn());
+            }
+        }
+
+        List<T> rows = query.orderBy(byTitle ? "title asc, ISBN asc" : "ISBN asc")
+                .setMaxRows(limit + 1)
+                .findList();
+
+        if (rows.size() > limit) {
+            List<T> items = rows.subList(0, limit);
+            return new Page<>(items, PageCursor.after(items.get(limit - 1), pageSort).encode());
+        } else {
+            return new Page<>(rows, null);
+        }
+    }
+
+
+    /**
+     * Getter for Items in this page
+     * @return
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+
+    /**
+     * Getter for encoded cursor of the next page
+     * @return
+     */
+    public String getNext() {
+        return next;
+    }
+
+
+}
@@ -0,0 +1,133 @@
+package dao;
+
+import models.LibraryItem;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+
+/**
+ * Opaque keyset pagination cursor over Library Items. Identifies the last Item of a page by its sort key, so that
+ * the next page can be fetched with an indexed "greater than" predicate instead of an OFFSET scan.
+ * Items are ordered either by ISBN, or by title with ISBN as tie-breaker.
+ */
+public final class PageCursor {
+
+
+    /**
+     * Sort order which orders Items by ISBN
+     */
+    public static final String SORT_BY_ISBN = "isbn";
+
+
+    /**
+     * Sort order which orders Items by title, then by ISBN
+     */
+    public static final String SORT_BY_TITLE = "title";
+
+
+    /**
+     * Separator between the fields of an encoded cursor
+     */
+    private static final char SEPARATOR = '\u0000';
+
+
+    /**
+     * Sort order of the page which this cursor continues
+     */
+    private final String sort;
+
+
+    /**
+     * Title of the last Item of the previous page, only used when sorting by title
+     */
+    private final String title;
+
+
+    /**
+     * ISBN of the last Item of the previous page
+     */
+    private final String isbn;
+
+
+    /**
+     * Private constructor, cursors are created through after() or decode()
+     * @param sort
+     * @param title
+     * @param isbn
+     */
+    private PageCursor(String sort, String title, String isbn) {
+        this.sort = sort;
+        this.title = title;
+        this.isbn = isbn;
+    }
+
+
+    /**
+     * Factory method to create the cursor continuing after the given Item.
+     * @param item - last Item of the current page
+     * @param sort - sort order of the page
+     * @return
+     */
+    public static PageCursor after(LibraryItem item, String sort) {
+        return new PageCursor(sort, SORT_BY_TITLE.equals(sort) ? item.getTitle() : null, item.getISBN());
+    }
+
+
+    /**
+     * Factory method to decode a cursor received from the Client.
+     * @param encoded - cursor as returned by encode()
+     * @return
+     * @throws IllegalArgumentException - when the cursor is malformed
+     */
+    public static PageCursor decode(String encoded) throws IllegalArgumentException {
+        String decoded = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+        String[] parts = decoded.split(String.valueOf(SEPARATOR), -1);
+        if (parts.length == 2 && SORT_BY_ISBN.equals(parts[0])) {
+            return new PageCursor(SORT_BY_ISBN, null, parts[1]);
+        } else if (parts.length == 3 && SORT_BY_TITLE.equals(parts[0])) {
+            return new PageCursor(SORT_BY_TITLE, parts[1], parts[2]);
+        } else {
+            throw new IllegalArgumentException("Malformed page cursor.");
+        }
+    }
+
+
+    /**
+     * Method to encode this cursor into an opaque, URL safe string to be handed to the Client.
+     * @return
+     */
+    public String encode() {
+        String raw = SORT_BY_TITLE.equals(sort) ? sort + SEPARATOR + title + SEPARATOR + isbn : sort + SEPARATOR + isbn;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    /**
+     * Getter for sort order
+     * @return
+     */
+    public String getSort() {
+        return sort;
+    }
+
+
+    /**
+     * Getter for title of the last Item of the previous page
+     * @return
+     */
+    public String getTitle() {
+        return title;
+    }
+
+
+    /**
+     * Getter for ISBN of the last Item of the previous page
+     * @return
+     */
+    public String getIsbn() {
+        return isbn;
+    }
+
+
+}
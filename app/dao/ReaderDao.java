@@ -1,6 +1,7 @@
 package dao;
 
 import com.google.inject.ImplementedBy;
+import exceptions.ReaderHasLoansException;
 import models.Reader;
 
 import javax.persistence.EntityExistsException;
@@ -24,10 +25,12 @@ public interface ReaderDao {
 
     Reader getReaderById(String id) throws EntityNotFoundException;
 
+    boolean readerExists(String id);
+
     void insertReader(Reader reader) throws EntityExistsException;
 
-    void updateReader(Reader reader) throws EntityNotFoundException;
+    void updateReader(Reader reader) throws EntityNotFoundException, EntityExistsException;
 
-    Reader deleteReader(String id) throws EntityNotFoundException;
+    void deleteReader(String id) throws EntityNotFoundException, ReaderHasLoansException;
 
 }
@@ -1,8 +1,12 @@
 package dao;
 
+import exceptions.ReaderHasLoansException;
+import io.ebean.DataIntegrityException;
+import io.ebean.DuplicateKeyException;
 import io.ebean.Ebean;
 import models.Reader;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.persistence.EntityExistsException;
 import javax.persistence.EntityNotFoundException;
@@ -12,6 +16,7 @@ import java.util.Set;
 /**
  * Implementation of the Reader Dao Interface
  * Executes, handles and perform CRUD operations on Readers' data.
+ * Lookups of Readers by Id are served from the Reader cache, which is invalidated whenever a Reader is written to.
  * @Singleton annotation is used to indicate to Guice that this only a single object instance of this class should
  * be created, instantiated and provided for entire application runtime.
  */
@@ -20,9 +25,18 @@ public class ReaderDaoImpl implements ReaderDao {
 
 
     /**
-     * Default constructor required by Ebeans
+     * Cache in front of lookups of Reader by Id
      */
-    public ReaderDaoImpl() {
+    private final CatalogCache catalogCache;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve CatalogCache dependency
+     * @param catalogCache
+     */
+    @Inject
+    public ReaderDaoImpl(CatalogCache catalogCache) {
+        this.catalogCache = catalogCache;
     }
 
 
@@ -47,14 +61,15 @@ public class ReaderDaoImpl implements ReaderDao {
 
 
     /**
-     * Getter to retrieve details of a particular Reader by querying database using reader Id.
+     * Getter to retrieve details of a particular Reader using reader Id, from the Reader cache or by querying the
+     * database on a cache miss.
      * @param id
      * @return
      * @throws EntityNotFoundException - when Reader is not found for given reader Id.
      */
     @Override
     public Reader getReaderById(String id) throws EntityNotFoundException {
-        Reader toReturn = Ebean.find(Reader.class).where().idEq(id).findOne();
+        Reader toReturn = catalogCache.getReader(id, key -> Ebean.find(Reader.class).where().idEq(key).findOne());
         if(toReturn == null)
             throw new EntityNotFoundException("Failed to find Reader for Reader Id given.");
         else
@@ -62,15 +77,38 @@ public class ReaderDaoImpl implements ReaderDao {
     }
 
 
+    /**
+     * Method to check whether a Reader is registered, answered from the Reader cache without querying the database
+     * for Readers looked up recently
+     * @param id
+     * @return - true if a Reader exists for the given reader Id
+     */
+    @Override
+    public boolean readerExists(String id) {
+        return id != null
+                && catalogCache.getReader(id, key -> Ebean.find(Reader.class).where().idEq(key).findOne()) != null;
+    }
+
+
     /**
      * Method to insert new Reader details into database when new Reader registers.
+     * The duplicate check is answered from the unique index on name, which also rejects a concurrent registration
+     * under the same name that passes the check.
      * @param reader
      * @throws EntityExistsException - when trying to register a Reader who is already registered.
+     * @throws IllegalArgumentException - when the Reader has no reader Id.
      */
     @Override
     public void insertReader(Reader reader) throws EntityExistsException {
+        requireReaderId(reader);
         if(Ebean.find(Reader.class).where().eq("name",reader.getName()).findCount()==0) {
-            reader.save();
+            try {
+                reader.save();
+            } catch (DuplicateKeyException e) {
+                throw new EntityExistsException("Reader is already registered.");
+            } finally {
+                catalogCache.invalidateReader(reader.getReaderId());
+            }
         }
         else {
             throw new EntityExistsException("Reader is already registered.");
@@ -79,32 +117,62 @@ public class ReaderDaoImpl implements ReaderDao {
 
 
     /**
-     * Method to update details of existing Reader in the database.
+     * Method to update details of existing Reader in the database, with a single update statement whose affected
+     * row count tells whether the Reader exists. Renaming a Reader to the name of another Reader is rejected by the
+     * unique index on name.
      * @param reader
      * @throws EntityNotFoundException - when Reader is not found for given reader Id
+     * @throws EntityExistsException - when another Reader is already registered under the given name.
+     * @throws IllegalArgumentException - when the Reader has no reader Id.
      */
     @Override
-    public void updateReader(Reader reader) throws EntityNotFoundException {
-        if(Ebean.find(Reader.class).where().idEq(reader.getReaderId()).findCount()==0) {
-            throw new EntityNotFoundException("Failed to update Reader details. Reader Id not found.");
-        }
-        else {
+    public void updateReader(Reader reader) throws EntityNotFoundException, EntityExistsException {
+        requireReaderId(reader);
+        try {
             reader.update();
+        } catch (EntityNotFoundException e) {
+            // Ebean reports an update of no rows as EntityNotFoundException
+            throw new EntityNotFoundException("Failed to update Reader details. Reader Id not found.");
+        } catch (DuplicateKeyException e) {
+            throw new EntityExistsException("Failed to update Reader details. Name is registered to another Reader.");
+        } finally {
+            catalogCache.invalidateReader(reader.getReaderId());
         }
     }
 
 
     /**
-     * Method to delete a Reader's details from the database.
+     * Method to delete a Reader's details from the database, with a single delete statement whose affected row
+     * count tells whether the Reader existed. The foreign key from borrowed Library Items to their current Reader
+     * rejects the delete if the Reader still has Items borrowed.
      * @param id
-     * @return
      * @throws EntityNotFoundException - when Reader is not found for given reader Id.
+     * @throws ReaderHasLoansException - when the Reader still has Library Items borrowed.
      */
     @Override
-    public Reader deleteReader(String id) throws EntityNotFoundException {
-        Reader reader = getReaderById(id);
-        reader.delete();
-        return reader;
+    public void deleteReader(String id) throws EntityNotFoundException, ReaderHasLoansException {
+        try {
+            if(Ebean.delete(Reader.class, id)==0) {
+                throw new EntityNotFoundException("Failed to delete Reader. Reader Id not found.");
+            }
+        } catch (DataIntegrityException e) {
+            throw new ReaderHasLoansException("Failed to delete Reader. Reader has borrowed Items.");
+        } finally {
+            catalogCache.invalidateReader(id);
+        }
+    }
+
+
+    /**
+     * Private utility method to reject a Reader without a reader Id before it is written, as the Reader could neither
+     * be stored nor its cached copy be invalidated
+     * @param reader
+     * @throws IllegalArgumentException - when the Reader has no reader Id.
+     */
+    private static void requireReaderId(Reader reader) {
+        if (reader.getReaderId() == null) {
+            throw new IllegalArgumentException("Reader Id is required.");
+        }
     }
 
 
@@ -0,0 +1,23 @@
+package dao;
+
+import com.google.inject.ImplementedBy;
+import utils.MyDateUtil;
+
+import java.util.List;
+
+
+/**
+ * Interface that declares the contract for behavior that all Report Data Access Object Implementations should
+ * define and implement.
+ *
+ * @ImplementedBy tells Guice which classes (ReportDaoImpl.class) implements this interface.
+ *
+ */
+@ImplementedBy(ReportDaoImpl.class)
+public interface ReportDao {
+
+    List<ReportEntry> findReportPage(MyDateUtil generateFor, String afterIsbn, int limit);
+
+    List<ReportEntry> findOverdueReportPage(MyDateUtil generateFor, String afterIsbn, int limit);
+
+}
@@ -0,0 +1,123 @@
+package dao;
+
+import io.ebean.Ebean;
+import io.ebean.ExpressionList;
+import io.ebean.SqlQuery;
+import io.ebean.SqlRow;
+import models.Book;
+import models.Dvd;
+import models.LibraryItem;
+import utils.MyDateUtil;
+
+import javax.inject.Singleton;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Implementation of the Report Dao Interface
+ * Reads the report on borrowed items one bounded page at a time, in ISBN order, so that the report is never held in
+ * memory as a whole. Every page is a separate short query which continues after the last ISBN of the previous page,
+ * so no connection or transaction is held open between pages, however slowly the report is consumed.
+ * @Singleton annotation is used to indicate to Guice that this class should only instantiate a single instance
+ * for entire application runtime.
+ */
+@Singleton
+public class ReportDaoImpl implements ReportDao {
+
+
+    /**
+     * Query computing overdue days and late fees of overdue Library Items in the database. Items are filtered on
+     * their borrowed on date being before the earliest due date cut-off of any Item type, which can be answered from
+     * an index on borrowed_on, and the per-type due date is then applied to the remaining rows using the item_type
+     * discriminator, so only overdue items are returned. The placeholder is replaced with the condition continuing
+     * after the previous page, if any.
+     * The cut-off is computed in Java and the report date is cast explicitly, as PgJDBC binds dates as untyped
+     * parameters, which Postgres would otherwise resolve as integers in date arithmetic.
+     */
+    private static final String OVERDUE_ITEMS_QUERY =
+            "select isbn, title, borrowed_on, overdue_by," +
+            " least(overdue_by, :primaryPeriod) * :primaryPenalty" +
+            " + greatest(overdue_by - :primaryPeriod, 0) * :secondaryPenalty as fee" +
+            " from (" +
+            "  select isbn, title, borrowed_on, (cast(:generatedOn as date) - borrowed_on)" +
+            "   - case item_type when :bookType then :bookPeriod else :dvdPeriod end as overdue_by" +
+            "  from library_item" +
+            "  where borrowed_on < cast(:dueCutOff as date)%s" +
+            " ) borrowed" +
+            " where overdue_by > 0" +
+            " order by isbn";
+
+
+    /**
+     * Default constructor required by Guice
+     */
+    public ReportDaoImpl() {
+    }
+
+
+    /**
+     * Method to find a page of the report on borrowed items, their isbn, title, date on which they were borrowed,
+     * the number of days by which they are overdue and the late return fee.
+     * Borrowed Items of all types are read with a single query, and overdue days and fees are computed in Java.
+     * @param generateFor - the date for which the report needs to be generated for
+     * @param afterIsbn - ISBN of the last Item of the previous page, or null for the first page
+     * @param limit - maximum number of Items in the page
+     * @return - the borrowed Items in the page, in ISBN order, fewer than the limit only on the last page
+     */
+    @Override
+    public List<ReportEntry> findReportPage(MyDateUtil generateFor, String afterIsbn, int limit) {
+        ExpressionList<LibraryItem> query = Ebean.find(LibraryItem.class).where().isNotNull("borrowedOn");
+        if (afterIsbn != null) {
+            query.gt("ISBN", afterIsbn);
+        }
+        List<LibraryItem> items = query.orderBy("ISBN asc").setMaxRows(limit).findList();
+        List<ReportEntry> page = new ArrayList<>(items.size());
+        for (LibraryItem item : items) {
+            page.add(new ReportEntry(item.getISBN(), item.getTitle(), item.getBorrowedOn().toString(),
+                    MyDateUtil.getDifference(generateFor, item.getBorrowedOn()) - item.getMaxBorrowalPeriod(),
+                    item.calculateLateFee(generateFor)));
+        }
+        return page;
+    }
+
+
+    /**
+     * Method to find a page of the report on overdue items only, in the same format as findReportPage.
+     * Overdue days and the tiered PRIMARY/SECONDARY penalty are computed by the database in a single query, so that
+     * only overdue items are transferred and no date arithmetic is done in Java.
+     * @param generateFor - the date for which the report needs to be generated for
+     * @param afterIsbn - ISBN of the last Item of the previous page, or null for the first page
+     * @param limit - maximum number of Items in the page
+     * @return - the overdue Items in the page, in ISBN order, fewer than the limit only on the last page
+     */
+    @Override
+    public List<ReportEntry> findOverdueReportPage(MyDateUtil generateFor, String afterIsbn, int limit) {
+        SqlQuery query = Ebean.createSqlQuery(String.format(OVERDUE_ITEMS_QUERY,
+                afterIsbn == null ? "" : " and isbn > :afterIsbn"))
+                .setParameter("generatedOn", Date.valueOf(generateFor.toLocalDate()))
+                .setParameter("bookType", Book.ITEM_TYPE)
+                .setParameter("bookPeriod", Book.MAX_BORROWAL_PERIOD)
+                .setParameter("dvdPeriod", Dvd.MAX_BORROWAL_PERIOD)
+                .setParameter("dueCutOff", Date.valueOf(generateFor.toLocalDate()
+                        .minusDays(Math.min(Book.MAX_BORROWAL_PERIOD, Dvd.MAX_BORROWAL_PERIOD))))
+                .setParameter("primaryPeriod", LibraryItem.PRIMARY_PENALTY_PERIOD)
+                .setParameter("primaryPenalty", BigDecimal.valueOf(LibraryItem.PRIMARY_PENALTY))
+                .setParameter("secondaryPenalty", BigDecimal.valueOf(LibraryItem.SECONDARY_PENALTY))
+                .setMaxRows(limit);
+        if (afterIsbn != null) {
+            query.setParameter("afterIsbn", afterIsbn);
+        }
+        List<ReportEntry> page = new ArrayList<>();
+        for (SqlRow row : query.findList()) {
+            page.add(new ReportEntry(row.getString("isbn"), row.getString("title"),
+                    new MyDateUtil(row.getDate("borrowed_on").toLocalDate()).toString(),
+                    row.getInteger("overdue_by"), row.getBigDecimal("fee")));
+        }
+        return page;
+    }
+
+
+}
@@ -0,0 +1,105 @@
+package dao;
+
+import java.math.BigDecimal;
+
+
+/**
+ * A borrowed Library Item as reported on by the report on borrowed items, with the number of days by which it is
+ * overdue and its late return fee. Returned to the Client as an element of the "items" array of the report.
+ */
+public class ReportEntry {
+
+
+    /**
+     * ISBN of Item
+     */
+    private final String isbn;
+
+
+    /**
+     * Title of Item
+     */
+    private final String title;
+
+
+    /**
+     * Date on which the Item was borrowed, in the format day/month/year
+     */
+    private final String borrowedOn;
+
+
+    /**
+     * Number of days by which the Item is overdue on the date of the report
+     */
+    private final int overdueBy;
+
+
+    /**
+     * Late return fee of the Item on the date of the report
+     */
+    private final BigDecimal fee;
+
+
+    /**
+     * Constructor method
+     * @param isbn
+     * @param title
+     * @param borrowedOn
+     * @param overdueBy
+     * @param fee
+     */
+    public ReportEntry(String isbn, String title, String borrowedOn, int overdueBy, BigDecimal fee) {
+        this.isbn = isbn;
+        this.title = title;
+        this.borrowedOn = borrowedOn;
+        this.overdueBy = overdueBy;
+        this.fee = fee;
+    }
+
+
+    /**
+     * Getter for ISBN
+     * @return
+     */
+    public String getIsbn() {
+        return isbn;
+    }
+
+
+    /**
+     * Getter for title
+     * @return
+     */
+    public String getTitle() {
+        return title;
+    }
+
+
+    /**
+     * Getter for date on which the Item was borrowed
+     * @return
+     */
+    public String getBorrowedOn() {
+        return borrowedOn;
+    }
+
+
+    /**
+     * Getter for number of days by which the Item is overdue
+     * @return
+     */
+    public int getOverdueBy() {
+        return overdueBy;
+    }
+
+
+    /**
+     * Getter for late return fee
+     * @return
+     */
+    public BigDecimal getFee() {
+        return fee;
+    }
+
+
+}
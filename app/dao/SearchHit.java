@@ -0,0 +1,86 @@
+package dao;
+
+
+/**
+ * A single Library Item matching a catalog search, with its relevance score. Returned to the Client as an element of
+ * the search response.
+ */
+public class SearchHit {
+
+
+    /**
+     * ISBN of Item
+     */
+    private final String isbn;
+
+
+    /**
+     * Type of Item, either Book or Dvd
+     */
+    private final String itemType;
+
+
+    /**
+     * Title of Item
+     */
+    private final String title;
+
+
+    /**
+     * Relevance of Item to the search query, higher is more relevant
+     */
+    private final double score;
+
+
+    /**
+     * Constructor method
+     * @param isbn
+     * @param itemType
+     * @param title
+     * @param score
+     */
+    public SearchHit(String isbn, String itemType, String title, double score) {
+        this.isbn = isbn;
+        this.itemType = itemType;
+        this.title = title;
+        this.score = score;
+    }
+
+
+    /**
+     * Getter for ISBN
+     * @return
+     */
+    public String getIsbn() {
+        return isbn;
+    }
+
+
+    /**
+     * Getter for Item type
+     * @return
+     */
+    public String getItemType() {
+        return itemType;
+    }
+
+
+    /**
+     * Getter for title
+     * @return
+     */
+    public String getTitle() {
+        return title;
+    }
+
+
+    /**
+     * Getter for score
+     * @return
+     */
+    public double getScore() {
+        return score;
+    }
+
+
+}
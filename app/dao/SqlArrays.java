@@ -0,0 +1,45 @@
+package dao;
+
+import java.util.List;
+
+
+/**
+ * Utility class used by Data Access Object Implementations to bind lists to array columns of hand-written
+ * statements. Ebean only binds @DbArray lists when it writes the property itself, so these statements bind the text
+ * form of the array instead and cast it to the column type, e.g. "cast(:authors as varchar[])".
+ */
+final class SqlArrays {
+
+
+    /**
+     * Private constructor, since this class only exposes static utility methods
+     */
+    private SqlArrays() {
+    }
+
+
+    /**
+     * Method to format a list of strings as a PostgreSQL array literal, with every element quoted and escaped
+     * @param values
+     * @return - the array literal, or null if the list is null
+     */
+    static String toLiteral(List<String> values) {
+        if (values == null) {
+            return null;
+        }
+        StringBuilder literal = new StringBuilder("{");
+        for (String value : values) {
+            if (literal.length() > 1) {
+                literal.append(',');
+            }
+            if (value == null) {
+                literal.append("NULL");
+            } else {
+                literal.append('"').append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            }
+        }
+        return literal.append('}').toString();
+    }
+
+
+}
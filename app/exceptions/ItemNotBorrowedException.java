@@ -0,0 +1,14 @@
+package exceptions;
+
+
+/**
+ * Custom Exception to mark exceptions that arise when trying to return a Library Item which is not currently
+ * borrowed by any Reader, e.g. when the same Item is returned twice.
+ */
+public class ItemNotBorrowedException extends Exception{
+
+    public ItemNotBorrowedException(String message) {
+        super(message);
+    }
+
+}
\ No newline at end of file
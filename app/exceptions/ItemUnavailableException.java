@@ -0,0 +1,14 @@
+package exceptions;
+
+
+/**
+ * Custom Exception to mark exceptions that arise when trying to borrow a Library Item which has already been
+ * borrowed by another Reader.
+ */
+public class ItemUnavailableException extends Exception{
+
+    public ItemUnavailableException(String message) {
+        super(message);
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package exceptions;
+
+
+/**
+ * Custom Exception to mark exceptions that arise when trying to delete a Reader who still has Library Items
+ * borrowed.
+ */
+public class ReaderHasLoansException extends Exception{
+
+    public ReaderHasLoansException(String message) {
+        super(message);
+    }
+
+}
\ No newline at end of file
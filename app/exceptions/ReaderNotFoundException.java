@@ -0,0 +1,14 @@
+package exceptions;
+
+
+/**
+ * Custom Exception to mark exceptions that arise when trying to borrow a Library Item for a Reader who is not
+ * registered with the Library.
+ */
+public class ReaderNotFoundException extends Exception{
+
+    public ReaderNotFoundException(String message) {
+        super(message);
+    }
+
+}
\ No newline at end of file
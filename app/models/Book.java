@@ -3,18 +3,19 @@ package models;
 import io.ebean.annotation.DbArray;
 import utils.MyDateUtil;
 
+import javax.persistence.DiscriminatorValue;
 import javax.persistence.Entity;
-import javax.persistence.Table;
 import java.util.List;
 
 /**
  * Model class to design and represent Books
  * Extends Library Item since Book is-a Library Item
  * @Entity JPA annotation is used to denote that this class models an entity which needs to be persisted and stored in a table.
- * @Table annotation is used to give explicit name for the table in which Books need to be persisted.
+ * @DiscriminatorValue JPA annotation is used to give the value of the item_type column which marks rows of the
+ * library_item table as Books.
  */
 @Entity
-@Table(name = "book")
+@DiscriminatorValue(Book.ITEM_TYPE)
 public class Book extends LibraryItem{
 
 
@@ -30,6 +31,12 @@ public class Book extends LibraryItem{
     public final static int MAX_BORROWAL_PERIOD = 7;
 
 
+    /**
+     * Value of the item_type discriminator column for Books
+     */
+    public final static String ITEM_TYPE = "Book";
+
+
     /**
      * The list of authors who have authored the book
      * @DbArray Ebeans Annotation is used to indicate to Ebeans that values in the List need to be persisted inside an
@@ -127,4 +134,24 @@ public class Book extends LibraryItem{
     }
 
 
+    /**
+     * Getter for the type of the Library Item
+     * @return - always Book
+     */
+    @Override
+    public String getItemType() {
+        return ITEM_TYPE;
+    }
+
+
+    /**
+     * Getter for the maximum period for which the Book can be borrowed for
+     * @return - the common maximum borrowal period for all Books
+     */
+    @Override
+    public int getMaxBorrowalPeriod() {
+        return MAX_BORROWAL_PERIOD;
+    }
+
+
 }
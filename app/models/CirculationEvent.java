@@ -0,0 +1,251 @@
+package models;
+
+import io.ebean.Ebean;
+import io.ebean.Model;
+import io.ebean.SqlUpdate;
+import io.ebean.annotation.Index;
+import io.ebean.annotation.NotNull;
+import io.ebean.annotation.WhenCreated;
+import utils.MyDateUtil;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+
+/**
+ * Model class to design and represent a single entry of the append-only circulation journal.
+ * Every borrowal, return, reservation and cancelled reservation is recorded as one event in the same transaction as
+ * the request, and Item Transaction Logs and Reservation queues are derived from the journal by the
+ * CirculationProjector, so that they can be rebuilt from it at any time.
+ * Events are never updated or deleted.
+ * @Entity JPA annotation is used to denote that this class models an entity which needs to be persisted and stored in a table.
+ * @Table annotation is used to give explicit name for the table in which events need to be persisted.
+ * @Index Ebean annotation is used to index events in the order in which they are projected.
+ */
+@Entity
+@Table(name = "circulation_event")
+@Index(columnNames = {"tx_id", "event_id"})
+public class CirculationEvent extends Model {
+
+
+    /**
+     * Types of circulation events
+     */
+    public enum Type {
+        BORROWED, RETURNED, RESERVED, CANCELLED
+    }
+
+
+    /**
+     * Id of the event, generated by the database in increasing order. Used as unique identifier.
+     */
+    @Id
+    private Long eventId;
+
+
+    /**
+     * Type of the event
+     */
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private Type eventType;
+
+
+    /**
+     * ISBN of Item the event applies to
+     */
+    @NotNull
+    private String itemIsbn;
+
+
+    /**
+     * Id of Reader the event applies to, or null for a return
+     */
+    private String readerId;
+
+
+    /**
+     * Date on which the Item was borrowed or returned, or null for reservation events
+     */
+    private MyDateUtil occurredOn;
+
+
+    /**
+     * Number of days for which the Item was borrowed, only set for return events
+     */
+    private Integer borrowedDays;
+
+
+    /**
+     * Id of the database transaction which recorded the event. Events are projected in transaction order, and only
+     * once every older transaction has finished, so that an event committed late is never skipped.
+     */
+    @NotNull
+    private long txId;
+
+
+    /**
+     * Time at which the event has been recorded
+     * @WhenCreated Ebean annotation is used to set this value when the event is inserted.
+     */
+    @WhenCreated
+    private Timestamp createdAt;
+
+
+    /**
+     * Getter for event Id
+     * @return
+     */
+    public Long getEventId() {
+        return eventId;
+    }
+
+
+    /**
+     * Getter for event type
+     * @return
+     */
+    public Type getEventType() {
+        return eventType;
+    }
+
+
+    /**
+     * Getter for Item ISBN
+     * @return
+     */
+    public String getItemIsbn() {
+        return itemIsbn;
+    }
+
+
+    /**
+     * Getter for Reader Id
+     * @return
+     */
+    public String getReaderId() {
+        return readerId;
+    }
+
+
+    /**
+     * Getter for date on which the Item was borrowed or returned
+     * @return
+     */
+    public MyDateUtil getOccurredOn() {
+        return occurredOn;
+    }
+
+
+    /**
+     * Getter for number of borrowed days
+     * @return
+     */
+    public Integer getBorrowedDays() {
+        return borrowedDays;
+    }
+
+
+    /**
+     * Getter for transaction Id
+     * @return
+     */
+    public long getTxId() {
+        return txId;
+    }
+
+
+    /**
+     * Getter for time at which the event has been recorded
+     * @return
+     */
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+
+    /**
+     * Method to record that an Item has been borrowed by a Reader
+     * @param isbn - ISBN of Item borrowed
+     * @param readerId - Id of Reader borrowing the Item
+     * @param borrowedOn - date on which the Item is borrowed
+     */
+    public static void recordBorrowal(String isbn, String readerId, MyDateUtil borrowedOn) {
+        append(Type.BORROWED, isbn, readerId, borrowedOn, null);
+    }
+
+
+    /**
+     * Method to record that a borrowed Item has been returned, together with the number of days for which it was
+     * borrowed. Invoked before the borrowal details of the Item are reset.
+     * @param item - Item being returned
+     * @param returnedOn - date on which the Item is returned
+     */
+    public static void recordReturn(LibraryItem item, MyDateUtil returnedOn) {
+        append(Type.RETURNED, item.getISBN(), null, returnedOn,
+                MyDateUtil.getDifference(returnedOn, item.getBorrowedOn()));
+    }
+
+
+    /**
+     * Method to record that a Reader has reserved an Item
+     * @param isbn - ISBN of Item reserved
+     * @param readerId - Id of Reader placing the Reservation
+     */
+    public static void recordReservation(String isbn, String readerId) {
+        append(Type.RESERVED, isbn, readerId, null, null);
+    }
+
+
+    /**
+     * Method to record that a Reader has cancelled their Reservations of an Item
+     * @param isbn - ISBN of Item
+     * @param readerId - Id of Reader cancelling the Reservation
+     */
+    public static void recordCancellation(String isbn, String readerId) {
+        append(Type.CANCELLED, isbn, readerId, null, null);
+    }
+
+
+    /**
+     * Private utility method to append an event to the journal with a single insert, tagged with the Id of the
+     * current database transaction
+     * @param type
+     * @param isbn
+     * @param readerId
+     * @param occurredOn
+     * @param borrowedDays
+     */
+    private static void append(Type type, String isbn, String readerId, MyDateUtil occurredOn,
+                               Integer borrowedDays) {
+        SqlUpdate insert = Ebean.createSqlUpdate("insert into circulation_event" +
+                " (event_type, item_isbn, reader_id, occurred_on, borrowed_days, tx_id, created_at)" +
+                " values (:eventType, :isbn, :readerId, :occurredOn, :borrowedDays, txid_current(), now())")
+                .setParameter("eventType", type.name())
+                .setParameter("isbn", isbn);
+        if (readerId == null) {
+            insert.setNull("readerId", Types.VARCHAR);
+        } else {
+            insert.setParameter("readerId", readerId);
+        }
+        if (occurredOn == null) {
+            insert.setNull("occurredOn", Types.DATE);
+        } else {
+            insert.setParameter("occurredOn", Date.valueOf(occurredOn.toLocalDate()));
+        }
+        if (borrowedDays == null) {
+            insert.setNull("borrowedDays", Types.INTEGER);
+        } else {
+            insert.setParameter("borrowedDays", borrowedDays);
+        }
+        insert.execute();
+    }
+
+
+}
@@ -3,18 +3,19 @@ package models;
 import io.ebean.annotation.DbArray;
 import utils.MyDateUtil;
 
+import javax.persistence.DiscriminatorValue;
 import javax.persistence.Entity;
-import javax.persistence.Table;
 import java.util.List;
 
 /**
  * Model class to design and represent Dvd's
  * Extends Library Item since Dvd is-a Library Item
  * @Entity JPA annotation is used to denote that this class models an entity which needs to be persisted in a table.
- * @Table annotation is used to give explicit name for the table in which Dvds need to be persisted.
+ * @DiscriminatorValue JPA annotation is used to give the value of the item_type column which marks rows of the
+ * library_item table as Dvds.
  */
 @Entity
-@Table(name = "dvd")
+@DiscriminatorValue(Dvd.ITEM_TYPE)
 public class Dvd extends LibraryItem {
 
 
@@ -30,6 +31,12 @@ public class Dvd extends LibraryItem {
     public final static int MAX_BORROWAL_PERIOD = 3;
 
 
+    /**
+     * Value of the item_type discriminator column for Dvds
+     */
+    public final static String ITEM_TYPE = "Dvd";
+
+
     /**
      * The list of language in which audio is available in the Dvd
      * @DbArray Ebeans Annotation is used to indicate to Ebeans that values in the List need to be persisted inside an
@@ -157,4 +164,24 @@ public class Dvd extends LibraryItem {
     }
 
 
+    /**
+     * Getter for the type of the Library Item
+     * @return - always Dvd
+     */
+    @Override
+    public String getItemType() {
+        return ITEM_TYPE;
+    }
+
+
+    /**
+     * Getter for the maximum period for which the Dvd can be borrowed for
+     * @return - the common maximum borrowal period for all Dvds
+     */
+    @Override
+    public int getMaxBorrowalPeriod() {
+        return MAX_BORROWAL_PERIOD;
+    }
+
+
 }
@@ -0,0 +1,65 @@
+package models;
+
+import io.ebean.Model;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+
+/**
+ * Model class to design and represent the number of Library Items of one type held by the library.
+ * The counter is incremented and decremented in the same transaction in which Items are inserted and deleted, so
+ * that the library's capacity can be checked without counting all Items.
+ * @Entity JPA annotation is used to denote that this class models an entity which needs to be persisted and stored in a table.
+ * @Table annotation is used to give explicit name for the table in which the counters need to be persisted.
+ */
+@Entity
+@Table(name = "inventory_counter")
+public class InventoryCounter extends Model {
+
+
+    /**
+     * Type of Library Item counted, as stored in the item_type discriminator column of Library Items.
+     * Used as unique identifier.
+     */
+    @Id
+    private String itemType;
+
+
+    /**
+     * Number of Library Items of the type held by the library
+     */
+    private int itemCount;
+
+
+    /**
+     * Constructor used to create Inventory Counter Objects
+     * @param itemType
+     * @param itemCount
+     */
+    public InventoryCounter(String itemType, int itemCount) {
+        this.itemType = itemType;
+        this.itemCount = itemCount;
+    }
+
+
+    /**
+     * Getter for Item type
+     * @return
+     */
+    public String getItemType() {
+        return itemType;
+    }
+
+
+    /**
+     * Getter for Item count
+     * @return
+     */
+    public int getItemCount() {
+        return itemCount;
+    }
+
+
+}
@@ -2,11 +2,11 @@ package models;
 
 import io.ebean.Ebean;
 import io.ebean.Model;
-import utils.MyDateUtil;
 
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 /**
  * Entity which keeps log of Item Transactions, for Item being borrowed and Item Return.
@@ -31,9 +31,23 @@ public class ItemTransactionLog extends Model{
 
 
     /**
-     * Average borrowal period for a given
+     * Total number of days for which the item has been borrowed, summed over all completed borrowals
      */
-    private int averageBorrowalPeriod;
+    private long totalBorrowedDays;
+
+
+    /**
+     * Number of times the item has been borrowed and returned
+     */
+    private int completedBorrowals;
+
+
+    /**
+     * Version of the log record, used for optimistic locking.
+     * @Version JPA annotation is used by Ebeans to detect concurrent updates of the same log.
+     */
+    @Version
+    private long version;
 
 
     /**
@@ -48,13 +62,16 @@ public class ItemTransactionLog extends Model{
      * Constructor to create Item Transaction Log objects
      * @param itemIsbn
      * @param noOfTimesBorrowed
-     * @param averageBorrowalPeriod
+     * @param totalBorrowedDays
+     * @param completedBorrowals
      */
-    public ItemTransactionLog(String itemIsbn, int noOfTimesBorrowed, int averageBorrowalPeriod) {
+    public ItemTransactionLog(String itemIsbn, int noOfTimesBorrowed, long totalBorrowedDays,
+                              int completedBorrowals) {
         this();
         this.itemIsbn = itemIsbn;
         this.noOfTimesBorrowed = noOfTimesBorrowed;
-        this.averageBorrowalPeriod = averageBorrowalPeriod;
+        this.totalBorrowedDays = totalBorrowedDays;
+        this.completedBorrowals = completedBorrowals;
     }
 
 
@@ -104,20 +121,66 @@ public class ItemTransactionLog extends Model{
 
 
     /**
-     * Getter for average borrowal period
+     * Getter for total number of borrowed days
+     * @return
+     */
+    public long getTotalBorrowedDays() {
+        return totalBorrowedDays;
+    }
+
+
+    /**
+     * Setter for total number of borrowed days
+     * @param totalBorrowedDays
+     */
+    public void setTotalBorrowedDays(long totalBorrowedDays) {
+        this.totalBorrowedDays = totalBorrowedDays;
+    }
+
+
+    /**
+     * Getter for number of completed borrowals
+     * @return
+     */
+    public int getCompletedBorrowals() {
+        return completedBorrowals;
+    }
+
+
+    /**
+     * Setter for number of completed borrowals
+     * @param completedBorrowals
+     */
+    public void setCompletedBorrowals(int completedBorrowals) {
+        this.completedBorrowals = completedBorrowals;
+    }
+
+
+    /**
+     * Getter for average borrowal period, derived from the total number of borrowed days and the number of
+     * completed borrowals
+     * @return - the average borrowal period in days, or 0 if the item has never been returned
+     */
+    public double getAverageBorrowalPeriod() {
+        return completedBorrowals == 0 ? 0 : (double) totalBorrowedDays / completedBorrowals;
+    }
+
+
+    /**
+     * Getter for version
      * @return
      */
-    public int getAverageBorrowalPeriod() {
-        return averageBorrowalPeriod;
+    public long getVersion() {
+        return version;
     }
 
 
     /**
-     * Setter for average borrowal period
-     * @param averageBorrowalPeriod
+     * Setter for version
+     * @param version
      */
-    public void setAverageBorrowalPeriod(int averageBorrowalPeriod) {
-        this.averageBorrowalPeriod = averageBorrowalPeriod;
+    public void setVersion(long version) {
+        this.version = version;
     }
 
 
@@ -137,26 +200,40 @@ public class ItemTransactionLog extends Model{
      * @param item
      */
     public static void initLogForItem(LibraryItem item){
-        ItemTransactionLog itemTransactionLog = new ItemTransactionLog(item.getISBN(), 0,0);
+        ItemTransactionLog itemTransactionLog = new ItemTransactionLog(item.getISBN(), 0, 0, 0);
         itemTransactionLog.save();
     }
 
 
     /**
-     * Method to update the Item Transaction Log when item is returned.
-     * Updates the average borrowal period.
-     * @param item
-     * @param returnedOn
-     */
-    public static void updateOnItemReturn(LibraryItem item, MyDateUtil returnedOn){
-        //Calculate day difference and update item transaction log
-        ItemTransactionLog log = getLogByItem(item.getISBN());
-        int currentBorrowalDayDiff = MyDateUtil.getDifference(returnedOn, item.getBorrowedOn());
-        log.setAverageBorrowalPeriod(
-                (currentBorrowalDayDiff+log.getAverageBorrowalPeriod()*(log.getNoOfTimesBorrowed()-1))
-                        /log.getNoOfTimesBorrowed()
-        );
-        log.update();
+     * Method to add a number of borrowals and returns of an item to its Item Transaction Log.
+     * Invoked by the CirculationProjector with the combined effect of a batch of circulation events, as a single
+     * atomic update, so that the log does not need to be read or locked.
+     * @param isbn - ISBN of item
+     * @param borrowals - number of times the item has been borrowed
+     * @param borrowedDays - total number of days for which the returned borrowals lasted
+     * @param returns - number of times the item has been returned
+     */
+    public static void addCirculation(String isbn, int borrowals, long borrowedDays, int returns){
+        Ebean.createSqlUpdate("update ItemTransactionLog" +
+                " set no_of_times_borrowed = no_of_times_borrowed + :borrowals," +
+                " total_borrowed_days = total_borrowed_days + :days," +
+                " completed_borrowals = completed_borrowals + :returns, version = version + 1 where item_isbn = :isbn")
+                .setParameter("borrowals", borrowals)
+                .setParameter("days", borrowedDays)
+                .setParameter("returns", returns)
+                .setParameter("isbn", isbn)
+                .execute();
+    }
+
+
+    /**
+     * Method to reset the Item Transaction Logs of all items, before they are rebuilt from the circulation journal
+     */
+    public static void resetAll(){
+        Ebean.createSqlUpdate("update ItemTransactionLog set no_of_times_borrowed = 0, total_borrowed_days = 0," +
+                " completed_borrowals = 0, version = version + 1")
+                .execute();
     }
 
 
@@ -1,7 +1,8 @@
 package models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.ebean.Model;
-import io.ebean.annotation.DbJson;
 import io.ebean.annotation.NotNull;
 import utils.MyDateUtil;
 
@@ -14,10 +15,15 @@ import java.math.BigDecimal;
  * Extends Model class in io.ebeans to extend persistence methods provided by Model class.
  * Implements Comparable to compare two Library Items, for comparison and ordering purpose.
  *
- * @MappedSuperClass JPA annotation is used to denote that this is a class from which other its subtypes will
- * inherit attributes and behavior.
+ * @Entity JPA annotation is used to denote that Library Items of all subtypes are persisted as entities.
+ * @Inheritance JPA annotation is used to persist all subtypes in the single library_item table, and
+ * @DiscriminatorColumn to store the subtype of each row in its item_type column, so that an Item can be looked up
+ * by ISBN, and borrowed Items can be reported on, with one query regardless of its type.
  */
-@MappedSuperclass
+@Entity
+@Table(name = "library_item")
+@Inheritance(strategy = InheritanceType.SINGLE_TABLE)
+@DiscriminatorColumn(name = "item_type")
 public abstract class LibraryItem extends Model implements Comparable<LibraryItem>{
 
     /**Common late item return fee charged on Readers for the first 3 days for which the item is overdue
@@ -32,6 +38,11 @@ public abstract class LibraryItem extends Model implements Comparable<LibraryIte
     public static final double SECONDARY_PENALTY = 12;
 
 
+    /**Number of overdue days for which the primary penalty rate is charged, before the secondary rate applies.
+     */
+    public static final int PRIMARY_PENALTY_PERIOD = 3;
+
+
     /**ISBN of each Library Item. Used as unique identifier.
      * @Id JPA annotation is used by Ebeans to identify this field as the unique identifier for all Library Item.
      */
@@ -52,10 +63,9 @@ public abstract class LibraryItem extends Model implements Comparable<LibraryIte
 
 
     /**Date on which the Library Item has been published.
-     * @DbJson Ebean annotation is used to indicate to Ebeans that this field of my custom defined type, MyDateUtil
-     * should be converted to a JSON object and persisted in the database, with its attribute values.
+     * Persisted in a native DATE column, converted to and from my custom defined type, MyDateUtil, by
+     * MyDateUtilConverter.
      */
-    @DbJson
     protected MyDateUtil pubDate;
 
 
@@ -67,13 +77,20 @@ public abstract class LibraryItem extends Model implements Comparable<LibraryIte
 
 
     /**The date on which the Library Item has been borrowed.
-     * @DbJson Ebean annotation is used to indicate to Ebean that this field of my custom defined type, MyDateUtil
-     * should be converted to a JSON object and persisted in the database, with its attribute values
+     * Persisted in a native DATE column, converted to and from my custom defined type, MyDateUtil, by
+     * MyDateUtilConverter, so that the database can index and compare it.
      */
-    @DbJson
     protected MyDateUtil borrowedOn;
 
 
+    /**Version of each Library Item record, used for optimistic locking.
+     * @Version JPA annotation is used by Ebeans to check this value on every update and increment it, so that
+     * concurrent updates of the same Library Item are detected instead of silently overwriting each other.
+     */
+    @Version
+    protected long version;
+
+
     /**
      * Default constructor required by Ebeans
      */
@@ -211,6 +228,51 @@ public abstract class LibraryItem extends Model implements Comparable<LibraryIte
     }
 
 
+    /**
+     * Getter for version
+     * @return
+     */
+    public final long getVersion() {
+        return version;
+    }
+
+
+    /**
+     * Setter for version
+     * @param version
+     */
+    public final void setVersion(long version) {
+        this.version = version;
+    }
+
+
+    /**
+     * Getter for the type of the Library Item, as stored in the item_type discriminator column.
+     * Serialized with the Item, so that Clients can tell the type of an Item looked up by ISBN alone.
+     * @return
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public abstract String getItemType();
+
+
+    /**
+     * Getter for the maximum period for which the Library Item can be borrowed for, in days
+     * @return
+     */
+    @JsonIgnore
+    public abstract int getMaxBorrowalPeriod();
+
+
+    /**Method to calculate the late fee on item return, using the maximum borrowal period of the Item's type.
+     * Returns $0.00 if item is returned before due date
+     * @param returned - the date on which the item is being returned by the reader.
+     * @return - the calculated late fee
+     */
+    public BigDecimal calculateLateFee(MyDateUtil returned){
+        return calculateLateFee(returned, getMaxBorrowalPeriod());
+    }
+
+
     /**Method to calculate the late fee on item return. Returns $0.00 if item is returned before due date
      * @param returned - the date on which the item is being returned by the reader.
      * @param maxBorrowalPeriod - the maximum period for which the item can be borrowed for
@@ -225,11 +287,12 @@ public abstract class LibraryItem extends Model implements Comparable<LibraryIte
             // Reader has kept item for more than the allowed duration
             int overdueBy = difference - maxBorrowalPeriod;
             BigDecimal fee = BigDecimal.valueOf(0);
-            if(overdueBy<=3){
+            if(overdueBy<=PRIMARY_PENALTY_PERIOD){
                 fee = fee.add(BigDecimal.valueOf(PRIMARY_PENALTY).multiply(BigDecimal.valueOf(overdueBy)));
             } else {
-                fee = fee.add(BigDecimal.valueOf(PRIMARY_PENALTY).multiply(BigDecimal.valueOf(3)));
-                fee =fee.add(BigDecimal.valueOf(SECONDARY_PENALTY).multiply(BigDecimal.valueOf(overdueBy-3)));
+                fee = fee.add(BigDecimal.valueOf(PRIMARY_PENALTY).multiply(BigDecimal.valueOf(PRIMARY_PENALTY_PERIOD)));
+                fee =fee.add(BigDecimal.valueOf(SECONDARY_PENALTY).multiply(
+                        BigDecimal.valueOf(overdueBy-PRIMARY_PENALTY_PERIOD)));
             }
             return fee;
         }else{
@@ -0,0 +1,124 @@
+package models;
+
+import io.ebean.Ebean;
+import io.ebean.Model;
+import io.ebean.annotation.NotNull;
+import io.ebean.annotation.WhenCreated;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.sql.Timestamp;
+
+
+/**
+ * Model class to design and represent a pending notification to a Reader that an Item in their Reservation queue
+ * has been returned.
+ * Notifications are written to this outbox in the same transaction as the return, so that a notification is never
+ * lost or sent for a return which was rolled back, and are delivered and removed by the NotificationDispatcher.
+ * @Entity JPA annotation is used to denote that this class models an entity which needs to be persisted and stored in a table.
+ * @Table annotation is used to give explicit name for the table in which pending notifications need to be persisted.
+ */
+@Entity
+@Table(name = "notification_outbox")
+public class NotificationOutbox extends Model {
+
+
+    /**
+     * Id of the notification, generated by the database in increasing order. Used as unique identifier, and to
+     * deliver notifications in the order in which they were written.
+     */
+    @Id
+    private Long outboxId;
+
+
+    /**
+     * Id of Reader to be notified
+     */
+    @NotNull
+    private String readerId;
+
+
+    /**
+     * ISBN of returned Item
+     */
+    @NotNull
+    private String itemIsbn;
+
+
+    /**
+     * Position of the Reader in the Reservation queue of the Item when it was returned, starting at 1
+     */
+    private int queuePosition;
+
+
+    /**
+     * Time at which the notification has been written
+     * @WhenCreated Ebean annotation is used to set this value when the notification is inserted.
+     */
+    @WhenCreated
+    private Timestamp createdAt;
+
+
+    /**
+     * Getter for outbox Id
+     * @return
+     */
+    public Long getOutboxId() {
+        return outboxId;
+    }
+
+
+    /**
+     * Getter for Reader Id
+     * @return
+     */
+    public String getReaderId() {
+        return readerId;
+    }
+
+
+    /**
+     * Getter for Item ISBN
+     * @return
+     */
+    public String getItemIsbn() {
+        return itemIsbn;
+    }
+
+
+    /**
+     * Getter for queue position
+     * @return
+     */
+    public int getQueuePosition() {
+        return queuePosition;
+    }
+
+
+    /**
+     * Getter for time at which the notification has been written
+     * @return
+     */
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+
+    /**
+     * Method to write a notification for every Reader in the Reservation queue of a returned Item.
+     * Issued as a single insert selecting from the current queue, which also holds Reservations not yet projected by
+     * the CirculationProjector, so that a Reader who reserved the Item just before its return is notified too.
+     * Writes nothing if no Reader has reserved the Item.
+     * @param isbn - ISBN of returned Item
+     */
+    public static void enqueueForReturn(String isbn) {
+        Ebean.createSqlUpdate("insert into notification_outbox (reader_id, item_isbn, queue_position, created_at)" +
+                " select reader_id, :isbn, queue_position, now()" +
+                " from (" + ReservationEntry.CURRENT_QUEUE_QUERY + ") queue")
+                .setParameter("isbn", isbn)
+                .execute();
+    }
+
+
+}
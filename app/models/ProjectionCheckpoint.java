@@ -0,0 +1,88 @@
+package models;
+
+import io.ebean.Model;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+
+/**
+ * Model class to design and represent how far a projection has read the circulation journal.
+ * The checkpoint is advanced in the same transaction in which a batch of events is applied to the projection, so
+ * that every event is applied exactly once.
+ * @Entity JPA annotation is used to denote that this class models an entity which needs to be persisted and stored in a table.
+ * @Table annotation is used to give explicit name for the table in which checkpoints need to be persisted.
+ */
+@Entity
+@Table(name = "projection_checkpoint")
+public class ProjectionCheckpoint extends Model {
+
+
+    /**
+     * Name of the checkpoint of the projection of the circulation journal into Item Transaction Logs and Reservation
+     * queues
+     */
+    public static final String CIRCULATION = "circulation";
+
+
+    /**
+     * Name of the projection. Used as unique identifier.
+     */
+    @Id
+    private String name;
+
+
+    /**
+     * Transaction Id of the last applied event
+     */
+    private long lastTxId;
+
+
+    /**
+     * Id of the last applied event
+     */
+    private long lastEventId;
+
+
+    /**
+     * Constructor used to create Projection Checkpoint Objects
+     * @param name
+     * @param lastTxId
+     * @param lastEventId
+     */
+    public ProjectionCheckpoint(String name, long lastTxId, long lastEventId) {
+        this.name = name;
+        this.lastTxId = lastTxId;
+        this.lastEventId = lastEventId;
+    }
+
+
+    /**
+     * Getter for name
+     * @return
+     */
+    public String getName() {
+        return name;
+    }
+
+
+    /**
+     * Getter for transaction Id of the last applied event
+     * @return
+     */
+    public long getLastTxId() {
+        return lastTxId;
+    }
+
+
+    /**
+     * Getter for Id of the last applied event
+     * @return
+     */
+    public long getLastEventId() {
+        return lastEventId;
+    }
+
+
+}
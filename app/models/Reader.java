@@ -1,6 +1,7 @@
 package models;
 
 import io.ebean.Model;
+import io.ebean.annotation.Index;
 import io.ebean.annotation.NotNull;
 
 import javax.persistence.Entity;
@@ -28,8 +29,11 @@ public class Reader extends Model {
      * Name of each Reader.
      * @NotNull JPA annotation is used to indicate that this attribute cannot be null, as in
      * every Reader needs to have a name.
+     * @Index Ebean annotation is used to enforce that no two Readers are registered under the same name, and to
+     * look Readers up by name.
      */
     @NotNull
+    @Index(name = "uq_reader_name", unique = true)
     private String name; // name of reader
 
 
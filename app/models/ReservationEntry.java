@@ -0,0 +1,203 @@
+package models;
+
+import io.ebean.Ebean;
+import io.ebean.Model;
+import io.ebean.annotation.Index;
+import io.ebean.annotation.NotNull;
+import io.ebean.annotation.WhenCreated;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.sql.Timestamp;
+
+
+/**
+ * Model class to design and represent a single Reader's place in the Reservation queue of a Library Item.
+ * Each Reservation is its own row, so placing a Reservation is an append-only insert and removing one is a single
+ * delete, instead of rewriting the whole queue.
+ * Reservation queues are a projection of the circulation journal, and are only written by the CirculationProjector.
+ * Since the projection lags the journal, the current queue of an Item is read by combining the projected queue with
+ * the journal events which have not been projected yet.
+ * @Entity JPA annotation is used to denote that this class models an entity which needs to be persisted and stored in a table.
+ * @Table annotation is used to give explicit name for the table in which Reservations need to be persisted.
+ * @Index Ebean annotation is used to index the queue of each item in queue order.
+ */
+@Entity
+@Table(name = "reservation_entry")
+@Index(columnNames = {"item_isbn", "position"})
+public class ReservationEntry extends Model {
+
+
+    /**
+     * Query of the current Reservation queue of the Item given by the :isbn parameter, as reader_id and queue_position
+     * rows. The projected queue is followed by the Reservations of journal events after the projection checkpoint,
+     * in journal order, and Readers who have since borrowed the Item or cancelled their Reservation are left out,
+     * mirroring how the CirculationProjector applies the events. Unprojected events are found through the journal
+     * index on (tx_id, event_id), and the whole queue is read from one snapshot, so that it is consistent even while
+     * the projector commits a batch.
+     */
+    static final String CURRENT_QUEUE_QUERY =
+            "select reader_id, row_number() over (order by stage, first_order, second_order) as queue_position" +
+            " from (" +
+            "  select reader_id, 0 as stage, position as first_order, 0 as second_order" +
+            "  from reservation_entry where item_isbn = :isbn" +
+            "  union all" +
+            "  select reader_id, 1, tx_id, event_id from circulation_event" +
+            "  where item_isbn = :isbn and event_type = 'RESERVED' and " + unprojected("circulation_event") +
+            " ) queued" +
+            " where not exists (" +
+            "  select 1 from circulation_event removal" +
+            "  where removal.item_isbn = :isbn and removal.reader_id = queued.reader_id" +
+            "  and removal.event_type in ('BORROWED', 'CANCELLED') and " + unprojected("removal") +
+            "  and (queued.stage = 0 or (removal.tx_id, removal.event_id) > (queued.first_order, queued.second_order))" +
+            " )";
+
+
+    /**
+     * Position of the Reservation, generated by the database in increasing order. Used as unique identifier, and
+     * to order the Reservation queue of each Library Item.
+     */
+    @Id
+    private Long position;
+
+
+    /**
+     * ISBN of item for which the Reservation has been placed
+     */
+    @NotNull
+    private String itemIsbn;
+
+
+    /**
+     * Id of Reader who has placed the Reservation
+     */
+    @NotNull
+    private String readerId;
+
+
+    /**
+     * Time at which the Reservation has been placed
+     * @WhenCreated Ebean annotation is used to set this value when the Reservation is inserted.
+     */
+    @WhenCreated
+    private Timestamp createdAt;
+
+
+    /**
+     * Constructor used to create Reservation Entry Objects
+     * @param itemIsbn - ISBN of item for which the Reservation is placed
+     * @param readerId - Id of Reader placing the Reservation
+     */
+    public ReservationEntry(String itemIsbn, String readerId) {
+        this.itemIsbn = itemIsbn;
+        this.readerId = readerId;
+    }
+
+
+    /**
+     * Getter for position
+     * @return
+     */
+    public Long getPosition() {
+        return position;
+    }
+
+
+    /**
+     * Getter for Item ISBN
+     * @return
+     */
+    public String getItemIsbn() {
+        return itemIsbn;
+    }
+
+
+    /**
+     * Getter for Reader Id
+     * @return
+     */
+    public String getReaderId() {
+        return readerId;
+    }
+
+
+    /**
+     * Getter for time at which the Reservation has been placed
+     * @return
+     */
+    public Timestamp getCreatedAt() {
+        return createdAt;
+    }
+
+
+    /**
+     * Method to append a Reader to the Reservation queue of a Library Item.
+     * Invoked by the CirculationProjector when it applies a reservation event. Issued as a single insert which is
+     * skipped if the Library Item has been deleted since it was reserved.
+     * @param isbn - ISBN of item being reserved
+     * @param readerId - Id of Reader placing the Reservation
+     * @param placedAt - time at which the Reservation has been placed
+     */
+    public static void enqueue(String isbn, String readerId, Timestamp placedAt){
+        Ebean.createSqlUpdate("insert into reservation_entry (item_isbn, reader_id, created_at)" +
+                " select :isbn, :readerId, :placedAt where exists (select 1 from library_item where isbn = :isbn)")
+                .setParameter("isbn", isbn)
+                .setParameter("readerId", readerId)
+                .setParameter("placedAt", placedAt)
+                .execute();
+    }
+
+
+    /**
+     * Method to remove a Reader from the Reservation queue of a Library Item, if the Reader has reserved it.
+     * Issued as a single delete statement.
+     * @param isbn - ISBN of item
+     * @param readerId - Id of Reader whose Reservation is to be removed
+     * @return - the number of Reservations removed
+     */
+    public static int dequeue(String isbn, String readerId){
+        return Ebean.createSqlUpdate("delete from reservation_entry where item_isbn = :isbn and reader_id = :readerId")
+                .setParameter("isbn", isbn)
+                .setParameter("readerId", readerId)
+                .execute();
+    }
+
+
+    /**
+     * Method to remove all Reservations of all Library Items, before the Reservation queues are rebuilt from the
+     * circulation journal
+     */
+    public static void deleteAll(){
+        Ebean.createSqlUpdate("delete from reservation_entry").execute();
+    }
+
+
+    /**
+     * Method to get the number of Readers in the current Reservation queue of a Library Item, including Reservations
+     * which have not been projected yet, and those placed earlier in the current transaction
+     * @param isbn - ISBN of item
+     * @return
+     */
+    public static int countForItem(String isbn){
+        return Ebean.createSqlQuery("select count(*) as readers from (" + CURRENT_QUEUE_QUERY + ") queue")
+                .setParameter("isbn", isbn)
+                .findOne()
+                .getInteger("readers");
+    }
+
+
+    /**
+     * Private utility method to build the condition selecting journal events which come after the checkpoint of the
+     * circulation projection, i.e. which have not been applied to the Reservation queues yet
+     * @param alias - alias of the circulation_event table
+     * @return
+     */
+    private static String unprojected(String alias) {
+        return "(" + alias + ".tx_id, " + alias + ".event_id) > (select coalesce(max(last_tx_id), 0)," +
+                " coalesce(max(last_event_id), 0) from projection_checkpoint where name = '" +
+                ProjectionCheckpoint.CIRCULATION + "')";
+    }
+
+
+}
@@ -0,0 +1,62 @@
+package notifications;
+
+import com.typesafe.config.Config;
+import play.libs.Json;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Notification Sink which appends every notification to a local file, one JSON object per line, so that the
+ * notifications sent can be inspected in tests and development.
+ * @Singleton annotation is used to indicate to Guice that this class should only instantiate a single instance
+ * for entire application runtime, so that all batches are appended to the same file in order.
+ */
+@Singleton
+public class FileNotificationSink implements NotificationSink {
+
+
+    /**
+     * Path of the file to which notifications are appended
+     */
+    private final Path file;
+
+
+    /**
+     * Constructor method. Uses Guice dependency injection to resolve the application configuration
+     * @param config - application configuration containing the "library.notifications.file" setting
+     */
+    @Inject
+    public FileNotificationSink(Config config) {
+        this.file = Paths.get(config.getString("library.notifications.file"));
+    }
+
+
+    /**
+     * Method to append a batch of notifications to the file with a single write
+     * @param notifications
+     * @throws IOException - when the file cannot be written
+     */
+    @Override
+    public synchronized void deliver(List<ReaderNotification> notifications) throws IOException {
+        List<String> lines = new ArrayList<>(notifications.size());
+        for (ReaderNotification notification : notifications) {
+            lines.add(Json.stringify(Json.toJson(notification)));
+        }
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+
+}
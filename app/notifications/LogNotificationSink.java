@@ -0,0 +1,38 @@
+package notifications;
+
+import play.Logger;
+import play.libs.Json;
+
+import javax.inject.Singleton;
+import java.util.List;
+
+
+/**
+ * Notification Sink which writes every notification to the application log, one JSON object per notification.
+ * Used when no external notification channel is configured.
+ * @Singleton annotation is used to indicate to Guice that this class should only instantiate a single instance
+ * for entire application runtime.
+ */
+@Singleton
+public class LogNotificationSink implements NotificationSink {
+
+
+    /**
+     * Logger to which notifications are written
+     */
+    private static final Logger.ALogger LOGGER = Logger.of("notifications");
+
+
+    /**
+     * Method to write a batch of notifications to the log
+     * @param notifications
+     */
+    @Override
+    public void deliver(List<ReaderNotification> notifications) {
+        for (ReaderNotification notification : notifications) {
+            LOGGER.info(Json.stringify(Json.toJson(notification)));
+        }
+    }
+
+
+}
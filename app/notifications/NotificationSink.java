@@ -0,0 +1,15 @@
+package notifications;
+
+import java.util.List;
+
+
+/**
+ * Interface that declares the contract for behavior that all Notification Sinks should define and implement. A sink
+ * delivers the notifications drained from the outbox to Readers, or to wherever they are to be recorded.
+ * The sink in use is selected by the "library.notifications.sink" setting, and bound in Module.
+ */
+public interface NotificationSink {
+
+    void deliver(List<ReaderNotification> notifications) throws Exception; // method to deliver a batch of notifications
+
+}
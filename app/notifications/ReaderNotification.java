@@ -0,0 +1,63 @@
+package notifications;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Notification to a single Reader that Items they have reserved have been returned, combining all pending
+ * notifications of the Reader which were dispatched together.
+ */
+public class ReaderNotification {
+
+
+    /**
+     * Id of Reader to be notified
+     */
+    private final String readerId;
+
+
+    /**
+     * Position of the Reader in the Reservation queue of each returned Item, keyed by ISBN in order of return
+     */
+    private final Map<String, Integer> queuePositions = new LinkedHashMap<>();
+
+
+    /**
+     * Constructor method
+     * @param readerId
+     */
+    public ReaderNotification(String readerId) {
+        this.readerId = readerId;
+    }
+
+
+    /**
+     * Getter for reader Id
+     * @return
+     */
+    public String getReaderId() {
+        return readerId;
+    }
+
+
+    /**
+     * Getter for queue positions, keyed by ISBN of returned Item
+     * @return
+     */
+    public Map<String, Integer> getQueuePositions() {
+        return queuePositions;
+    }
+
+
+    /**
+     * Method to add a returned Item to the notification
+     * @param isbn - ISBN of returned Item
+     * @param queuePosition - position of the Reader in the Reservation queue of the Item
+     */
+    public void addItem(String isbn, int queuePosition) {
+        queuePositions.put(isbn, queuePosition);
+    }
+
+
+}
@@ -1,5 +1,9 @@
 package utils;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDate;
+
 
 /**
  * Custom utility class to handle Date related logic of this application
@@ -7,6 +11,42 @@ package utils;
 public class MyDateUtil {
 
 
+    /**
+     * Cumulative number of days before the first day of each month in a common year
+     */
+    private static final int[] CUMULATIVE_DAYS = new int[]{0,31,59,90,120,151,181,212,243,273,304,334};
+
+
+    /**
+     * Cumulative number of days before the first day of each month in a leap year
+     */
+    private static final int[] LEAP_CUMULATIVE_DAYS = new int[]{0,31,60,91,121,152,182,213,244,274,305,335};
+
+
+    /**
+     * Number of days in each month in a common year
+     */
+    private static final int[] DAYS_IN_MONTH = new int[]{31,28,31,30,31,30,31,31,30,31,30,31};
+
+
+    /**
+     * Number of days from 1/1/1 until the 1900 epoch, in the proleptic Gregorian calendar
+     */
+    private static final int DAYS_BEFORE_EPOCH = daysBeforeYear(1900);
+
+
+    /**
+     * The 1900 epoch, as a java.time epoch day (days since 1/1/1970)
+     */
+    private static final long EPOCH_AS_JAVA_EPOCH_DAY = LocalDate.of(1900, 1, 1).toEpochDay();
+
+
+    /**
+     * Marker value of epochDay, denoting that it has not been computed since the date last changed
+     */
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+
     /**
      * Represents day of the month
      */
@@ -26,7 +66,14 @@ public class MyDateUtil {
 
 
     /**
-     * Default constructor required by Ebeans to resolve deserialization of JsonObject stored in database
+     * Number of days elapsed since the 1900 epoch, computed on first use and cached until the date changes.
+     * Transient, since it is derived from day, month and year and need not be persisted.
+     */
+    private transient int epochDay = UNKNOWN;
+
+
+    /**
+     * Default constructor required by Jackson to resolve deserialization of dates in JSON request bodies
      */
     public MyDateUtil(){
     }
@@ -45,14 +92,30 @@ public class MyDateUtil {
     }
 
 
+    /**
+     * Constructor to create a MyDateUtil object from a java.time LocalDate.
+     * @param date
+     */
+    public MyDateUtil(LocalDate date) {
+        this(date.getDayOfMonth(), date.getMonthValue(), date.getYear());
+    }
+
+
     /**
      * Constructor to create a MyDateUtil object by passing in a date string as argument.
      * @param date
+     * @throws IllegalArgumentException - when the string is not in the format day/month/year, or is not a valid date
      */
     public MyDateUtil(String date){
-        this.day = Integer.valueOf(date.split("/")[0]);
-        this.month = Integer.valueOf(date.split("/")[1]);
-        this.year = Integer.valueOf(date.split("/")[2]);
+        int firstSlash = date.indexOf('/');
+        int secondSlash = date.indexOf('/', firstSlash + 1);
+        if (firstSlash < 0 || secondSlash < 0) {
+            throw new NumberFormatException("Date should be in the format day/month/year: " + date);
+        }
+        this.day = parseField(date, 0, firstSlash);
+        this.month = parseField(date, firstSlash + 1, secondSlash);
+        this.year = parseField(date, secondSlash + 1, date.length());
+        checkRange(this);
     }
 
 
@@ -70,6 +133,7 @@ public class MyDateUtil {
      */
     public void setDay(int day) {
         this.day = day;
+        this.epochDay = UNKNOWN;
     }
 
 
@@ -88,6 +152,7 @@ public class MyDateUtil {
      */
     public void setMonth(int month) {
         this.month = month;
+        this.epochDay = UNKNOWN;
     }
 
 
@@ -106,6 +171,24 @@ public class MyDateUtil {
      */
     public void setYear(int year) {
         this.year = year;
+        this.epochDay = UNKNOWN;
+    }
+
+
+    /**
+     * Getter for number of days elapsed since the 1900 epoch.
+     * Computed in constant time on first use, and cached until the date is changed through a setter.
+     * @JsonIgnore Jackson annotation is used so that this derived value is not persisted with the date.
+     * @return
+     */
+    @JsonIgnore
+    public int getEpochDay() {
+        int cached = epochDay;
+        if (cached == UNKNOWN) {
+            cached = daysElapsed(this);
+            epochDay = cached;
+        }
+        return cached;
     }
 
 
@@ -116,44 +199,92 @@ public class MyDateUtil {
      * @return - difference in number of days between the two days
      */
     public static int getDifference(MyDateUtil date1, MyDateUtil date2){
-        return daysElapsed(date1) - daysElapsed(date2);
+        return date1.getEpochDay() - date2.getEpochDay();
     };
 
 
     /**
-     * Utility static method to get the number of days elapsed since 1900 epoch. Output of this method
-     * is used by other methods like getDifference() to compute the difference between two dates in terms of the number
-     * of days elapsed.
+     * Utility static method to get the number of days elapsed since 1900 epoch (1/1/1900 being day 0), computed in
+     * closed form without iterating over years. Output of this method is used by other methods like getDifference()
+     * to compute the difference between two dates in terms of the number of days elapsed.
      * @param date
      * @return
      */
     public static int daysElapsed(MyDateUtil date){
 
-        final int[] CUMULATIVE_DAYS = new int[]{0,31,59,90,120,151,181,212,243,273,304,334};
-        final int[] LEAP_CUMULATIVE_DAYS = new int[]{0,31,60,91,121,152,182,213,244,274,305,335};
+        checkRange(date);
+        int[] cumulativeDays = isLeapYear(date.getYear()) ? LEAP_CUMULATIVE_DAYS : CUMULATIVE_DAYS;
 
-        int yearDiffInDays = 0;
-        for(int i=1900; i<=date.getYear(); i++){
-            if(isLeapYear(i)){
-                yearDiffInDays+=366;
-            } else {
-                yearDiffInDays+=365;
-            }
-        }
+        return daysBeforeYear(date.getYear()) - DAYS_BEFORE_EPOCH
+                + cumulativeDays[date.getMonth() - 1]
+                + date.getDay() - 1;
+
+    }
+
+
+    /**
+     * Utility static method to get the date a given number of days after the 1900 epoch. Inverse of daysElapsed(),
+     * used to derive dates such as due dates from the epoch day of another date.
+     * @param epochDay - number of days elapsed since the 1900 epoch
+     * @return
+     */
+    public static MyDateUtil fromEpochDay(int epochDay){
+        MyDateUtil date = new MyDateUtil(LocalDate.ofEpochDay(EPOCH_AS_JAVA_EPOCH_DAY + epochDay));
+        date.epochDay = epochDay;
+        return date;
+    }
+
+
+    /**
+     * Private utility static method to get the number of days from 1/1/1 until the first day of the given year,
+     * counting the leap days of all preceding years.
+     * @param year
+     * @return
+     */
+    private static int daysBeforeYear(int year){
+        int previousYear = year - 1;
+        return 365 * previousYear + previousYear / 4 - previousYear / 100 + previousYear / 400;
+    }
 
-        int monthDiffInDays;
-        if(isLeapYear(date.getYear())){
-            // Leap year
-            monthDiffInDays = LEAP_CUMULATIVE_DAYS[(date.getMonth() - 1)];
-        } else {
-            // Not leap year
-            monthDiffInDays = CUMULATIVE_DAYS[(date.getMonth() - 1)];
-        }
 
-        int daysDiff = date.getDay() - 1;
+    /**
+     * Private utility static method to parse a non-negative decimal field of a date string without allocating
+     * substrings.
+     * @param date - the date string
+     * @param from - index of the first character of the field
+     * @param to - index after the last character of the field
+     * @return
+     */
+    private static int parseField(String date, int from, int to){
+        if (from >= to) {
+            throw new NumberFormatException("Date should be in the format day/month/year: " + date);
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = date.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Date should be in the format day/month/year: " + date);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
 
-        return yearDiffInDays + monthDiffInDays + daysDiff;
 
+    /**
+     * Private utility static method to check that the month and day of a date exist, before they are used to look up
+     * the days of the month, e.g. for dates set field by field from a JSON request body.
+     * @param date
+     * @throws IllegalArgumentException - when the month is not within 1 to 12, or the day is not within the month
+     */
+    private static void checkRange(MyDateUtil date){
+        if (date.getMonth() < 1 || date.getMonth() > 12) {
+            throw new IllegalArgumentException("Month should be between 1 and 12: " + date);
+        }
+        int daysInMonth = date.getMonth() == 2 && isLeapYear(date.getYear()) ? 29 : DAYS_IN_MONTH[date.getMonth() - 1];
+        if (date.getDay() < 1 || date.getDay() > daysInMonth) {
+            throw new IllegalArgumentException("Day should be between 1 and " + daysInMonth + ": " + date);
+        }
     }
 
 
@@ -175,6 +306,15 @@ public class MyDateUtil {
     }
 
 
+    /**
+     * Method that converts MyDateUtil object into a java.time LocalDate, e.g. to bind it as an SQL DATE parameter.
+     * @return
+     */
+    public LocalDate toLocalDate() {
+        return LocalDate.of(this.getYear(), this.getMonth(), this.getDay());
+    }
+
+
     /**
      * Method that converts MyDateUtil object into a String and returns it to the user.
      * @return - returns the date as a date string.
@@ -0,0 +1,49 @@
+package utils;
+
+import io.ebean.config.ScalarTypeConverter;
+
+import java.time.LocalDate;
+
+
+/**
+ * Ebean scalar type converter which maps my custom defined date type, MyDateUtil, to a native DATE column.
+ * Ebean converts MyDateUtil values to LocalDate when binding them, and back when reading them, so that dates are
+ * stored in a form the database can index, compare and range-scan, without any JSON (de)serialization.
+ * Registered with Ebean through the "ebean.default" setting in application.conf.
+ */
+public class MyDateUtilConverter implements ScalarTypeConverter<MyDateUtil, LocalDate> {
+
+
+    /**
+     * Method which returns the value used for SQL NULL
+     * @return
+     */
+    @Override
+    public MyDateUtil getNullValue() {
+        return null;
+    }
+
+
+    /**
+     * Method which converts a DATE value read from the database into a MyDateUtil
+     * @param date
+     * @return
+     */
+    @Override
+    public MyDateUtil wrapValue(LocalDate date) {
+        return date == null ? null : new MyDateUtil(date);
+    }
+
+
+    /**
+     * Method which converts a MyDateUtil into a DATE value to be bound to an SQL statement
+     * @param date
+     * @return
+     */
+    @Override
+    public LocalDate unwrapValue(MyDateUtil date) {
+        return date == null ? null : date.toLocalDate();
+    }
+
+
+}
@@ -0,0 +1,186 @@
+package benchmarks;
+
+import dao.CatalogSearch;
+import dao.SearchHit;
+import io.ebean.Ebean;
+import models.Book;
+import models.Dvd;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import play.Application;
+import play.inject.guice.GuiceApplicationBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmark shared by both Catalog Search implementations, which runs the same queries against the same catalog with
+ * the in-memory index ("memory") and the full-text indexes of the database ("database"), as selected by the
+ * "library.search.mode" setting.
+ * The catalog is generated in the database given by the BENCHMARK_DATABASE_URL (a JDBC URL, e.g.
+ * jdbc:postgresql://localhost/library_bench), BENCHMARK_DATABASE_USERNAME and BENCHMARK_DATABASE_PASSWORD environment
+ * variables. All tables are emptied before the catalog is generated, so the database must be dedicated to benchmarks.
+ * Run with sbt "benchmarks/jmh:run CatalogSearchBenchmark".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CatalogSearchBenchmark {
+
+
+    /**
+     * Maximum number of Items returned by each search, as by default by the search endpoint
+     */
+    private static final int LIMIT = 20;
+
+
+    /**
+     * Time allowed for the in-memory index to be built from the database
+     */
+    private static final long INDEX_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+
+    /**
+     * Catalog Search implementation under benchmark, as named by the "library.search.mode" setting
+     */
+    @Param({"memory", "database"})
+    public String mode;
+
+
+    /**
+     * Number of Items in the generated catalog, half of which are Books and half Dvds
+     */
+    @Param({"10000", "100000"})
+    public int items;
+
+
+    /**
+     * Query searched for: a full word, a prefix, two words, and the name of an author
+     */
+    @Param({"garden", "gar", "silent garden", "austen"})
+    public String query;
+
+
+    /**
+     * Application running with the Catalog Search implementation under benchmark
+     */
+    private Application application;
+
+
+    /**
+     * Catalog Search implementation under benchmark
+     */
+    private CatalogSearch catalogSearch;
+
+
+    /**
+     * Generates the catalog, and starts the application with the Catalog Search implementation under benchmark once
+     * it has been generated, so that the in-memory index is built from the whole catalog
+     * @throws InterruptedException - when interrupted while waiting for the index to be built
+     */
+    @Setup
+    public void startApplication() throws InterruptedException {
+        Application seeding = buildApplication();
+        try {
+            generateCatalog(items);
+        } finally {
+            play.api.Play.stop(seeding.asScala());
+        }
+
+        application = buildApplication();
+        catalogSearch = application.injector().instanceOf(CatalogSearch.class);
+        long deadline = System.currentTimeMillis() + INDEX_TIMEOUT_MILLIS;
+        while (!catalogSearch.isReady()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Catalog search index was not built in time");
+            }
+            Thread.sleep(100);
+        }
+    }
+
+
+    /**
+     * Stops the application
+     */
+    @TearDown
+    public void stopApplication() {
+        play.api.Play.stop(application.asScala());
+    }
+
+
+    @Benchmark
+    public List<SearchHit> search() {
+        return catalogSearch.search(query, LIMIT);
+    }
+
+
+    /**
+     * Private utility method to build the application against the benchmark database, which applies evolutions to it
+     * @return
+     */
+    private Application buildApplication() {
+        String url = System.getenv("BENCHMARK_DATABASE_URL");
+        if (url == null) {
+            throw new IllegalStateException("BENCHMARK_DATABASE_URL is not set");
+        }
+        return new GuiceApplicationBuilder()
+                .configure("db.default.url", url)
+                .configure("db.default.username", envOrEmpty("BENCHMARK_DATABASE_USERNAME"))
+                .configure("db.default.password", envOrEmpty("BENCHMARK_DATABASE_PASSWORD"))
+                .configure("library.search.mode", mode)
+                .build();
+    }
+
+
+    /**
+     * Private utility method to empty all tables and generate a catalog of Books and Dvds, whose titles, people and
+     * publishers are drawn from small vocabularies so that every query matches many Items
+     * @param items - number of Items to be generated
+     */
+    private static void generateCatalog(int items) {
+        Ebean.createSqlUpdate("truncate table library_item, reader, ItemTransactionLog, reservation_entry," +
+                " circulation_event, projection_checkpoint, notification_outbox restart identity cascade")
+                .execute();
+        Ebean.createSqlUpdate("insert into library_item (item_type, isbn, title, section, pub_date, version," +
+                " authors, publisher, no_of_pages, producer, actors)" +
+                " select case when i % 2 = 0 then :book else :dvd end, 'ISBN-' || i," +
+                " (array['Silent', 'Hidden', 'Golden', 'Winter', 'Lost', 'Secret', 'Broken', 'Distant'])[1 + i % 8]" +
+                " || ' ' || (array['Garden', 'River', 'Kingdom', 'Harbour', 'Letters', 'Forest', 'Empire'," +
+                " 'Station'])[1 + (i / 8) % 8] || ' ' || i," +
+                " (array['Fiction', 'History', 'Science', 'Children'])[1 + i % 4]," +
+                " date '1950-01-01' + i % 25000, 1," +
+                " case when i % 2 = 0 then cast(array[(array['Jane Austen', 'Charles Dickens', 'Mary Shelley'," +
+                " 'Leo Tolstoy', 'Virginia Woolf'])[1 + i % 5]] as varchar[]) end," +
+                " case when i % 2 = 0 then (array['Penguin', 'Vintage', 'Harper'])[1 + i % 3] end," +
+                " case when i % 2 = 0 then 100 + i % 900 end," +
+                " case when i % 2 = 1 then (array['Studio Ghibli', 'Pixar', 'Ealing'])[1 + i % 3] end," +
+                " case when i % 2 = 1 then cast(array[(array['Ingrid Bergman', 'Cary Grant', 'Audrey Hepburn'])" +
+                "[1 + i % 3]] as varchar[]) end" +
+                " from generate_series(1, :items) i")
+                .setParameter("book", Book.ITEM_TYPE)
+                .setParameter("dvd", Dvd.ITEM_TYPE)
+                .setParameter("items", items)
+                .execute();
+    }
+
+
+    /**
+     * Private utility method to read an environment variable, which may be unset
+     * @param name
+     * @return - the value of the variable, or an empty string if it is unset
+     */
+    private static String envOrEmpty(String name) {
+        String value = System.getenv(name);
+        return value == null ? "" : value;
+    }
+
+
+}
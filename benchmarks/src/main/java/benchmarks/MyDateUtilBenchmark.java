@@ -0,0 +1,146 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import utils.MyDateUtil;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Benchmark of the date arithmetic on the borrow, return, reserve and report paths, which parse the dates of a
+ * request and compute the number of days between them.
+ * Each benchmark parses a pair of dates from a fixed set of realistic dates (borrowed in the last ten years, and
+ * returned within two months), and computes the number of days between them, once with MyDateUtil and once with the
+ * previous implementation, which split the date string three times and counted days year by year from 1900.
+ * Run with sbt "benchmarks/jmh:run MyDateUtilBenchmark".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MyDateUtilBenchmark {
+
+
+    /**
+     * Number of pairs of dates, a power of two so that the next pair is chosen by masking
+     */
+    private static final int PAIRS = 1024;
+
+
+    /**
+     * Dates on which Items were borrowed, in the format day/month/year
+     */
+    private final String[] borrowedOn = new String[PAIRS];
+
+
+    /**
+     * Dates on which Items were returned, in the format day/month/year
+     */
+    private final String[] returnedOn = new String[PAIRS];
+
+
+    /**
+     * Index of the next pair of dates
+     */
+    private int next;
+
+
+    /**
+     * Generates the pairs of dates, from a fixed seed so that every run measures the same dates
+     */
+    @Setup
+    public void generateDates() {
+        Random random = new Random(42);
+        LocalDate first = LocalDate.of(2010, 1, 1);
+        for (int i = 0; i < PAIRS; i++) {
+            LocalDate borrowed = first.plusDays(random.nextInt(3653));
+            LocalDate returned = borrowed.plusDays(random.nextInt(60));
+            borrowedOn[i] = format(borrowed);
+            returnedOn[i] = format(returned);
+        }
+    }
+
+
+    @Benchmark
+    public int parseAndDifference() {
+        int i = next++ & (PAIRS - 1);
+        return MyDateUtil.getDifference(new MyDateUtil(returnedOn[i]), new MyDateUtil(borrowedOn[i]));
+    }
+
+
+    @Benchmark
+    public int previousParseAndDifference() {
+        int i = next++ & (PAIRS - 1);
+        return previousDaysElapsed(previousParse(returnedOn[i])) - previousDaysElapsed(previousParse(borrowedOn[i]));
+    }
+
+
+    /**
+     * Private utility method to format a date as the Client sends it
+     * @param date
+     * @return - the date in the format day/month/year
+     */
+    private static String format(LocalDate date) {
+        return date.getDayOfMonth() + "/" + date.getMonthValue() + "/" + date.getYear();
+    }
+
+
+    /**
+     * Previous implementation of the MyDateUtil string constructor
+     * @param date - date in the format day/month/year
+     * @return - the day, month and year of the date
+     */
+    private static int[] previousParse(String date) {
+        return new int[]{Integer.valueOf(date.split("/")[0]), Integer.valueOf(date.split("/")[1]),
+                Integer.valueOf(date.split("/")[2])};
+    }
+
+
+    /**
+     * Previous implementation of MyDateUtil.daysElapsed
+     * @param date - the day, month and year of the date
+     * @return - the number of days elapsed since the 1900 epoch, as counted by the previous implementation
+     */
+    private static int previousDaysElapsed(int[] date) {
+
+        final int[] CUMULATIVE_DAYS = new int[]{0,31,59,90,120,151,181,212,243,273,304,334};
+        final int[] LEAP_CUMULATIVE_DAYS = new int[]{0,31,60,91,121,152,182,213,244,274,305,335};
+
+        int yearDiffInDays = 0;
+        for(int i=1900; i<=date[2]; i++){
+            if(isLeapYear(i)){
+                yearDiffInDays+=366;
+            } else {
+                yearDiffInDays+=365;
+            }
+        }
+
+        int monthDiffInDays;
+        if(isLeapYear(date[2])){
+            monthDiffInDays = LEAP_CUMULATIVE_DAYS[(date[1] - 1)];
+        } else {
+            monthDiffInDays = CUMULATIVE_DAYS[(date[1] - 1)];
+        }
+
+        return yearDiffInDays + monthDiffInDays + date[0] - 1;
+    }
+
+
+    /**
+     * Private utility method to check whether a year is a leap year
+     * @param year
+     * @return
+     */
+    private static boolean isLeapYear(int year) {
+        return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+
+}
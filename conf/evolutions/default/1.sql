@@ -0,0 +1,77 @@
+# --- Baseline schema of the Library Manager, as first deployed from the original models. This file is frozen and is
+# --- not regenerated from the models: every later schema change is made by the numbered evolutions which follow it,
+# --- so that their data migrations always find the tables they migrate from.
+
+# --- !Ups
+
+create table book (
+  isbn                          varchar(255) not null,
+  title                         varchar(255) not null,
+  section                       varchar(255),
+  pub_date                      json,
+  current_reader_reader_id      varchar(255),
+  borrowed_on                   json,
+  authors                       varchar[],
+  publisher                     varchar(255),
+  no_of_pages                   integer not null,
+  constraint pk_book primary key (isbn)
+);
+
+create table dvd (
+  isbn                          varchar(255) not null,
+  title                         varchar(255) not null,
+  section                       varchar(255),
+  pub_date                      json,
+  current_reader_reader_id      varchar(255),
+  borrowed_on                   json,
+  audio                         varchar[],
+  subtitles                     varchar[],
+  producer                      varchar(255),
+  actors                        varchar[],
+  constraint pk_dvd primary key (isbn)
+);
+
+create table ItemTransactionLog (
+  item_isbn                     varchar(255) not null,
+  no_of_times_borrowed          integer not null,
+  average_borrowal_period       integer not null,
+  constraint pk_itemtransactionlog primary key (item_isbn)
+);
+
+create table reader (
+  reader_id                     varchar(255) not null,
+  name                          varchar(255) not null,
+  mobile                        varchar(255),
+  email                         varchar(255),
+  constraint pk_reader primary key (reader_id)
+);
+
+create table reservations (
+  item_isbn                     varchar(255) not null,
+  list_of_readers               varchar[],
+  constraint pk_reservations primary key (item_isbn)
+);
+
+alter table book add constraint fk_book_current_reader_reader_id foreign key (current_reader_reader_id) references reader (reader_id) on delete restrict on update restrict;
+create index ix_book_current_reader_reader_id on book (current_reader_reader_id);
+
+alter table dvd add constraint fk_dvd_current_reader_reader_id foreign key (current_reader_reader_id) references reader (reader_id) on delete restrict on update restrict;
+create index ix_dvd_current_reader_reader_id on dvd (current_reader_reader_id);
+
+# --- !Downs
+
+alter table if exists book drop constraint if exists fk_book_current_reader_reader_id;
+drop index if exists ix_book_current_reader_reader_id;
+
+alter table if exists dvd drop constraint if exists fk_dvd_current_reader_reader_id;
+drop index if exists ix_dvd_current_reader_reader_id;
+
+drop table if exists book cascade;
+
+drop table if exists dvd cascade;
+
+drop table if exists ItemTransactionLog cascade;
+
+drop table if exists reader cascade;
+
+drop table if exists reservations cascade;
@@ -0,0 +1,33 @@
+# --- Adds the full-text search columns and indexes used by the database catalog search (see
+# --- dao.DatabaseCatalogSearch). search_vector is a generated tsvector column over the title (weight A), the authors
+# --- and actors (weight B), and the publisher, producer and section (weight C) of every Library Item, indexed with
+# --- GIN, and the lower-cased title is indexed with pg_trgm for typo-tolerant title lookup.
+# --- array_to_string is only STABLE, so the arrays are converted by an IMMUTABLE wrapper which generated columns
+# --- accept. Generated columns require PostgreSQL 12 or later.
+
+# --- !Ups
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE OR REPLACE FUNCTION library_text_array(varchar[]) RETURNS text
+  LANGUAGE sql IMMUTABLE PARALLEL SAFE
+  AS $$ SELECT array_to_string($1, ' ') $$;
+
+ALTER TABLE library_item ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+  setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+  setweight(to_tsvector('simple', coalesce(library_text_array(authors), '') || ' ' ||
+                                  coalesce(library_text_array(actors), '')), 'B') ||
+  setweight(to_tsvector('simple', coalesce(publisher, '') || ' ' || coalesce(producer, '') || ' ' ||
+                                  coalesce(section, '')), 'C')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS ix_library_item_search_vector ON library_item USING gin (search_vector);
+
+CREATE INDEX IF NOT EXISTS ix_library_item_title_trgm ON library_item USING gin (lower(title) gin_trgm_ops);
+
+# --- !Downs
+
+DROP INDEX IF EXISTS ix_library_item_title_trgm;
+DROP INDEX IF EXISTS ix_library_item_search_vector;
+ALTER TABLE library_item DROP COLUMN IF EXISTS search_vector;
+DROP FUNCTION IF EXISTS library_text_array(varchar[]);
@@ -0,0 +1,41 @@
+# --- Adds secondary indexes for the predicates of the hottest queries:
+# --- - borrowed Items (borrowed_on IS NOT NULL), read by both report modes, through a partial index which only holds
+# ---   the borrowed Items and so stays small however large the catalog grows;
+# --- - Reader names, which insertReader checks for duplicates, through a unique index. If duplicate names already
+# ---   exist the evolution fails and names them, since which Reader to rename cannot be decided here: rename or merge
+# ---   the duplicate Readers by hand (e.g. UPDATE reader SET name = name || ' (' || reader_id || ')' for all but one
+# ---   of them), then mark the evolution resolved and restart the application to apply it again;
+# --- - the current Reader of each Item, which is looked up for a Reader's loans and by the foreign key check when a
+# ---   Reader is deleted. The full index created by 4.sql is replaced with a partial index over borrowed Items only.
+# --- Evolutions run inside a transaction, so the indexes are built without CONCURRENTLY.
+
+# --- !Ups
+
+CREATE INDEX IF NOT EXISTS ix_library_item_borrowed_on ON library_item (borrowed_on) WHERE borrowed_on IS NOT NULL;
+
+DO $$
+DECLARE
+  duplicates text;;
+BEGIN
+  SELECT string_agg(quote_literal(name), ', ') INTO duplicates
+    FROM (SELECT name FROM reader GROUP BY name HAVING count(*) > 1) AS duplicate_names;;
+  IF duplicates IS NOT NULL THEN
+    RAISE EXCEPTION 'reader.name must be unique, but these names are shared by several Readers: %', duplicates
+      USING HINT = 'Rename or merge the duplicate Readers, then apply this evolution again.';;
+  END IF;;
+END
+$$;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_reader_name ON reader (name);
+
+CREATE INDEX IF NOT EXISTS ix_library_item_current_reader_borrowed ON library_item (current_reader_reader_id)
+  WHERE current_reader_reader_id IS NOT NULL;
+DROP INDEX IF EXISTS ix_library_item_current_reader_reader_id;
+
+# --- !Downs
+
+CREATE INDEX IF NOT EXISTS ix_library_item_current_reader_reader_id ON library_item (current_reader_reader_id);
+DROP INDEX IF EXISTS ix_library_item_current_reader_borrowed;
+DROP INDEX IF EXISTS ix_reader_name;
+DROP INDEX IF EXISTS uq_reader_name;
+DROP INDEX IF EXISTS ix_library_item_borrowed_on;
@@ -0,0 +1,10 @@
+# --- Indexes Library Items in the order of title-sorted catalog pages, so that each page continues from its cursor
+# --- with an index range scan over one Item type, instead of scanning and sorting the whole table (see dao.Page).
+
+# --- !Ups
+
+CREATE INDEX IF NOT EXISTS ix_library_item_item_type_title_isbn ON library_item (item_type, title, isbn);
+
+# --- !Downs
+
+DROP INDEX IF EXISTS ix_library_item_item_type_title_isbn;
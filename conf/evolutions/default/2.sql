@@ -0,0 +1,55 @@
+# --- Migrates the pub_date and borrowed_on columns of Library Items from @DbJson documents to native DATE columns.
+# --- Only columns which are still JSON are converted.
+# --- Also adds the @Version columns which Books, Dvds and Item Transaction Logs are optimistically locked by, and
+# --- which the models gained before evolutions were introduced on top of the frozen baseline in 1.sql.
+
+# --- !Ups
+
+ALTER TABLE book ADD COLUMN IF NOT EXISTS version bigint not null default 1;
+ALTER TABLE dvd ADD COLUMN IF NOT EXISTS version bigint not null default 1;
+ALTER TABLE ItemTransactionLog ADD COLUMN IF NOT EXISTS version bigint not null default 1;
+
+DO $$
+DECLARE
+  target record;;
+BEGIN
+  FOR target IN
+    SELECT table_name, column_name FROM information_schema.columns
+    WHERE table_schema = current_schema()
+      AND table_name IN ('book', 'dvd')
+      AND column_name IN ('pub_date', 'borrowed_on')
+      AND data_type IN ('json', 'jsonb')
+  LOOP
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN %I TYPE date USING make_date('
+                   'cast(%I->>''year'' as int), cast(%I->>''month'' as int), cast(%I->>''day'' as int))',
+                   target.table_name, target.column_name,
+                   target.column_name, target.column_name, target.column_name);;
+  END LOOP;;
+END
+$$;
+
+# --- !Downs
+
+ALTER TABLE ItemTransactionLog DROP COLUMN IF EXISTS version;
+ALTER TABLE dvd DROP COLUMN IF EXISTS version;
+ALTER TABLE book DROP COLUMN IF EXISTS version;
+
+DO $$
+DECLARE
+  target record;;
+BEGIN
+  FOR target IN
+    SELECT table_name, column_name FROM information_schema.columns
+    WHERE table_schema = current_schema()
+      AND table_name IN ('book', 'dvd')
+      AND column_name IN ('pub_date', 'borrowed_on')
+      AND data_type = 'date'
+  LOOP
+    EXECUTE format('ALTER TABLE %I ALTER COLUMN %I TYPE json USING CASE WHEN %I IS NULL THEN NULL '
+                   'ELSE json_build_object(''day'', extract(day from %I)::int, '
+                   '''month'', extract(month from %I)::int, ''year'', extract(year from %I)::int) END',
+                   target.table_name, target.column_name, target.column_name,
+                   target.column_name, target.column_name, target.column_name);;
+  END LOOP;;
+END
+$$;
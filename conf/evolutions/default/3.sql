@@ -0,0 +1,42 @@
+# --- Replaces the @DbArray reader list of the reservations table with one reservation_entry row per Reader in the
+# --- queue. Queues are moved over from the reservations table of the baseline, which is then dropped.
+
+# --- !Ups
+
+CREATE TABLE IF NOT EXISTS reservation_entry (
+  position                      bigserial not null,
+  item_isbn                     varchar(255) not null,
+  reader_id                     varchar(255) not null,
+  created_at                    timestamptz not null,
+  constraint pk_reservation_entry primary key (position)
+);
+
+CREATE INDEX IF NOT EXISTS ix_reservation_entry_item_isbn_position ON reservation_entry (item_isbn, position);
+
+DO $$
+BEGIN
+  IF EXISTS (SELECT 1 FROM information_schema.tables
+             WHERE table_schema = current_schema() AND table_name = 'reservations') THEN
+    INSERT INTO reservation_entry (item_isbn, reader_id, created_at)
+      SELECT r.item_isbn, queue.reader_id, now()
+      FROM reservations r CROSS JOIN LATERAL unnest(r.list_of_readers) WITH ORDINALITY AS queue(reader_id, ord)
+      ORDER BY r.item_isbn, queue.ord;;
+    DROP TABLE reservations;;
+  END IF;;
+END
+$$;
+
+# --- !Downs
+
+CREATE TABLE IF NOT EXISTS reservations (
+  item_isbn                     varchar(255) not null,
+  list_of_readers               varchar[],
+  version                       bigint not null default 1,
+  constraint pk_reservations primary key (item_isbn)
+);
+
+INSERT INTO reservations (item_isbn, list_of_readers)
+  SELECT item_isbn, array_agg(reader_id ORDER BY position) FROM reservation_entry GROUP BY item_isbn
+  ON CONFLICT (item_isbn) DO UPDATE SET list_of_readers = excluded.list_of_readers;
+
+DELETE FROM reservation_entry;
@@ -0,0 +1,110 @@
+# --- Moves Books and Dvds from their separate book and dvd tables into the single library_item table, in which the
+# --- item_type discriminator column tells them apart. Rows are copied over from the book and dvd tables of the
+# --- baseline, which are then dropped.
+# --- ISBNs are unique across all Item types in library_item, but the baseline allowed a Book and a Dvd to share one.
+# --- If any do, the evolution fails before copying anything and names them, since which of the two keeps the ISBN
+# --- cannot be decided here: correct or delete one of each pair by hand (e.g. DELETE FROM dvd WHERE isbn = '...'),
+# --- then mark the evolution resolved and restart the application to apply it again.
+
+# --- !Ups
+
+CREATE TABLE IF NOT EXISTS library_item (
+  item_type                     varchar(31) not null,
+  isbn                          varchar(255) not null,
+  title                         varchar(255) not null,
+  section                       varchar(255),
+  pub_date                      date,
+  current_reader_reader_id      varchar(255),
+  borrowed_on                   date,
+  version                       bigint not null,
+  authors                       varchar[],
+  publisher                     varchar(255),
+  no_of_pages                   integer,
+  audio                         varchar[],
+  subtitles                     varchar[],
+  producer                      varchar(255),
+  actors                        varchar[],
+  constraint pk_library_item primary key (isbn)
+);
+
+DO $$
+DECLARE
+  clashes text;;
+BEGIN
+  IF to_regclass('book') IS NOT NULL AND to_regclass('dvd') IS NOT NULL THEN
+    SELECT string_agg(quote_literal(book.isbn), ', ' ORDER BY book.isbn) INTO clashes
+      FROM book JOIN dvd ON dvd.isbn = book.isbn;;
+    IF clashes IS NOT NULL THEN
+      RAISE EXCEPTION 'ISBNs must be unique across Books and Dvds, but these are used by both: %', clashes
+        USING HINT = 'Correct or delete the Book or the Dvd of each ISBN, then apply this evolution again.';;
+    END IF;;
+  END IF;;
+  IF to_regclass('book') IS NOT NULL THEN
+    INSERT INTO library_item (item_type, isbn, title, section, pub_date, current_reader_reader_id, borrowed_on,
+                              version, authors, publisher, no_of_pages)
+      SELECT 'Book', isbn, title, section, pub_date, current_reader_reader_id, borrowed_on,
+             version, authors, publisher, no_of_pages
+      FROM book;;
+    DROP TABLE book;;
+  END IF;;
+  IF to_regclass('dvd') IS NOT NULL THEN
+    INSERT INTO library_item (item_type, isbn, title, section, pub_date, current_reader_reader_id, borrowed_on,
+                              version, audio, subtitles, producer, actors)
+      SELECT 'Dvd', isbn, title, section, pub_date, current_reader_reader_id, borrowed_on,
+             version, audio, subtitles, producer, actors
+      FROM dvd;;
+    DROP TABLE dvd;;
+  END IF;;
+  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_library_item_current_reader_reader_id') THEN
+    ALTER TABLE library_item ADD CONSTRAINT fk_library_item_current_reader_reader_id
+      FOREIGN KEY (current_reader_reader_id) REFERENCES reader (reader_id) ON DELETE RESTRICT ON UPDATE RESTRICT;;
+  END IF;;
+END
+$$;
+
+CREATE INDEX IF NOT EXISTS ix_library_item_current_reader_reader_id ON library_item (current_reader_reader_id);
+
+# --- !Downs
+
+CREATE TABLE IF NOT EXISTS book (
+  isbn                          varchar(255) not null,
+  title                         varchar(255) not null,
+  section                       varchar(255),
+  pub_date                      date,
+  current_reader_reader_id      varchar(255),
+  borrowed_on                   date,
+  version                       bigint not null,
+  authors                       varchar[],
+  publisher                     varchar(255),
+  no_of_pages                   integer not null,
+  constraint pk_book primary key (isbn)
+);
+
+CREATE TABLE IF NOT EXISTS dvd (
+  isbn                          varchar(255) not null,
+  title                         varchar(255) not null,
+  section                       varchar(255),
+  pub_date                      date,
+  current_reader_reader_id      varchar(255),
+  borrowed_on                   date,
+  version                       bigint not null,
+  audio                         varchar[],
+  subtitles                     varchar[],
+  producer                      varchar(255),
+  actors                        varchar[],
+  constraint pk_dvd primary key (isbn)
+);
+
+INSERT INTO book (isbn, title, section, pub_date, current_reader_reader_id, borrowed_on, version, authors, publisher,
+                  no_of_pages)
+  SELECT isbn, title, section, pub_date, current_reader_reader_id, borrowed_on, version, authors, publisher,
+         coalesce(no_of_pages, 0)
+  FROM library_item WHERE item_type = 'Book';
+
+INSERT INTO dvd (isbn, title, section, pub_date, current_reader_reader_id, borrowed_on, version, audio, subtitles,
+                 producer, actors)
+  SELECT isbn, title, section, pub_date, current_reader_reader_id, borrowed_on, version, audio, subtitles,
+         producer, actors
+  FROM library_item WHERE item_type = 'Dvd';
+
+DROP TABLE library_item;
@@ -0,0 +1,20 @@
+# --- Adds the inventory_counter table holding the number of Library Items of each type, and seeds it from the
+# --- Library Items already in the database.
+
+# --- !Ups
+
+CREATE TABLE IF NOT EXISTS inventory_counter (
+  item_type                     varchar(255) not null,
+  item_count                    integer not null,
+  constraint pk_inventory_counter primary key (item_type)
+);
+
+INSERT INTO inventory_counter (item_type, item_count)
+  SELECT item_type, count(library_item.isbn) FROM (VALUES ('Book'), ('Dvd')) AS types(item_type)
+    LEFT JOIN library_item USING (item_type)
+  GROUP BY item_type
+  ON CONFLICT (item_type) DO UPDATE SET item_count = excluded.item_count;
+
+# --- !Downs
+
+DROP TABLE IF EXISTS inventory_counter;
@@ -0,0 +1,30 @@
+# --- References Library Items from their Transaction Logs and Reservations with foreign keys which cascade on delete,
+# --- so that deleting a Library Item removes its log and Reservation queue in the same statement. Logs and
+# --- Reservations left behind by earlier deletes are removed first.
+
+# --- !Ups
+
+DELETE FROM ItemTransactionLog log
+  WHERE NOT EXISTS (SELECT 1 FROM library_item item WHERE item.isbn = log.item_isbn);
+
+DELETE FROM reservation_entry entry
+  WHERE NOT EXISTS (SELECT 1 FROM library_item item WHERE item.isbn = entry.item_isbn);
+
+DO $$
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_itemtransactionlog_item_isbn') THEN
+    ALTER TABLE ItemTransactionLog ADD CONSTRAINT fk_itemtransactionlog_item_isbn
+      FOREIGN KEY (item_isbn) REFERENCES library_item (isbn) ON DELETE CASCADE ON UPDATE RESTRICT;;
+  END IF;;
+  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_reservation_entry_item_isbn') THEN
+    ALTER TABLE reservation_entry ADD CONSTRAINT fk_reservation_entry_item_isbn
+      FOREIGN KEY (item_isbn) REFERENCES library_item (isbn) ON DELETE CASCADE ON UPDATE RESTRICT;;
+  END IF;;
+END
+$$;
+
+# --- !Downs
+
+ALTER TABLE reservation_entry DROP CONSTRAINT IF EXISTS fk_reservation_entry_item_isbn;
+
+ALTER TABLE ItemTransactionLog DROP CONSTRAINT IF EXISTS fk_itemtransactionlog_item_isbn;
@@ -0,0 +1,38 @@
+# --- Replaces the truncated average_borrowal_period of Item Transaction Logs with running totals, from which the
+# --- average is derived on read.
+# --- Every borrow of an Item which is not currently borrowed has been completed, so the number of completed
+# --- borrowals is the borrow count, less one for Items which are out on loan.
+
+# --- !Ups
+
+ALTER TABLE ItemTransactionLog ADD COLUMN IF NOT EXISTS total_borrowed_days bigint not null default 0;
+ALTER TABLE ItemTransactionLog ADD COLUMN IF NOT EXISTS completed_borrowals integer not null default 0;
+
+DO $$
+BEGIN
+  IF EXISTS (SELECT 1 FROM information_schema.columns
+             WHERE table_schema = current_schema() AND table_name = 'itemtransactionlog'
+               AND column_name = 'average_borrowal_period') THEN
+    UPDATE ItemTransactionLog log
+      SET completed_borrowals = greatest(log.no_of_times_borrowed
+                                         - CASE WHEN item.borrowed_on IS NULL THEN 0 ELSE 1 END, 0),
+          total_borrowed_days = log.average_borrowal_period::bigint
+                                * greatest(log.no_of_times_borrowed
+                                           - CASE WHEN item.borrowed_on IS NULL THEN 0 ELSE 1 END, 0)
+      FROM library_item item
+      WHERE item.isbn = log.item_isbn;;
+    ALTER TABLE ItemTransactionLog DROP COLUMN average_borrowal_period;;
+  END IF;;
+END
+$$;
+
+# --- !Downs
+
+ALTER TABLE ItemTransactionLog ADD COLUMN IF NOT EXISTS average_borrowal_period integer not null default 0;
+
+UPDATE ItemTransactionLog
+  SET average_borrowal_period = CASE WHEN completed_borrowals = 0 THEN 0
+                                     ELSE (total_borrowed_days / completed_borrowals)::integer END;
+
+ALTER TABLE ItemTransactionLog DROP COLUMN IF EXISTS completed_borrowals;
+ALTER TABLE ItemTransactionLog DROP COLUMN IF EXISTS total_borrowed_days;
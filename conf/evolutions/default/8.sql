@@ -0,0 +1,55 @@
+# --- Adds the append-only circulation_event journal, and the projection_checkpoint table recording how far the
+# --- journal has been projected into Item Transaction Logs and Reservation queues.
+# --- When the journal is first introduced, it is seeded with events reproducing the existing Item Transaction Logs
+# --- and Reservation queues, so that they survive a rebuild. The seeded events are already reflected in the
+# --- projections, so the checkpoint is placed after them.
+
+# --- !Ups
+
+CREATE TABLE IF NOT EXISTS circulation_event (
+  event_id                      bigserial not null,
+  event_type                    varchar(9) not null,
+  item_isbn                     varchar(255) not null,
+  reader_id                     varchar(255),
+  occurred_on                   date,
+  borrowed_days                 integer,
+  tx_id                         bigint not null,
+  created_at                    timestamptz not null,
+  constraint ck_circulation_event_event_type check ( event_type in ('BORROWED','RETURNED','RESERVED','CANCELLED')),
+  constraint pk_circulation_event primary key (event_id)
+);
+
+CREATE INDEX IF NOT EXISTS ix_circulation_event_tx_id_event_id ON circulation_event (tx_id, event_id);
+
+CREATE TABLE IF NOT EXISTS projection_checkpoint (
+  name                          varchar(255) not null,
+  last_tx_id                    bigint not null,
+  last_event_id                 bigint not null,
+  constraint pk_projection_checkpoint primary key (name)
+);
+
+DO $$
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM projection_checkpoint WHERE name = 'circulation') THEN
+    INSERT INTO circulation_event (event_type, item_isbn, reader_id, tx_id, created_at)
+      SELECT 'RESERVED', item_isbn, reader_id, txid_current(), created_at FROM reservation_entry
+      ORDER BY position;;
+    INSERT INTO circulation_event (event_type, item_isbn, tx_id, created_at)
+      SELECT 'BORROWED', log.item_isbn, txid_current(), now()
+      FROM ItemTransactionLog log CROSS JOIN LATERAL generate_series(1, log.no_of_times_borrowed) AS borrowal;;
+    INSERT INTO circulation_event (event_type, item_isbn, borrowed_days, tx_id, created_at)
+      SELECT 'RETURNED', log.item_isbn,
+             (log.total_borrowed_days / log.completed_borrowals
+              + CASE WHEN ret = 1 THEN log.total_borrowed_days % log.completed_borrowals ELSE 0 END)::integer,
+             txid_current(), now()
+      FROM ItemTransactionLog log CROSS JOIN LATERAL generate_series(1, log.completed_borrowals) AS ret;;
+    INSERT INTO projection_checkpoint (name, last_tx_id, last_event_id)
+      SELECT 'circulation', txid_current(), coalesce(max(event_id), 0) FROM circulation_event;;
+  END IF;;
+END
+$$;
+
+# --- !Downs
+
+DROP TABLE IF EXISTS projection_checkpoint;
+DROP TABLE IF EXISTS circulation_event;
@@ -0,0 +1,17 @@
+# --- Adds the notification_outbox table, to which a notification is written for every Reader in the Reservation
+# --- queue of a returned Item.
+
+# --- !Ups
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+  outbox_id                     bigserial not null,
+  reader_id                     varchar(255) not null,
+  item_isbn                     varchar(255) not null,
+  queue_position                integer not null,
+  created_at                    timestamptz not null,
+  constraint pk_notification_outbox primary key (outbox_id)
+);
+
+# --- !Downs
+
+DROP TABLE IF EXISTS notification_outbox;
@@ -0,0 +1,87 @@
+package controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Test;
+import play.mvc.Result;
+
+import static org.junit.Assert.assertEquals;
+import static play.test.Helpers.CREATED;
+import static play.test.Helpers.DELETE;
+import static play.test.Helpers.FORBIDDEN;
+import static play.test.Helpers.GET;
+import static play.test.Helpers.NOT_FOUND;
+import static play.test.Helpers.OK;
+import static play.test.Helpers.POST;
+import static play.test.Helpers.PUT;
+
+
+/**
+ * Tests of the catalog endpoints of DvdController
+ */
+public class DvdControllerTest extends WithLibraryDatabase {
+
+
+    @Test
+    public void savedDvdIsListedAndFound() {
+        assertEquals(CREATED, request(POST, "/library/dvd", dvdJson("D1", "Spirited Away")).status());
+
+        Result list = request(GET, "/library/dvd");
+        assertEquals(OK, list.status());
+        JsonNode dvds = contentAsJson(list);
+        assertEquals(1, dvds.size());
+        assertEquals("D1", dvds.get(0).get("isbn").textValue());
+
+        Result get = request(GET, "/library/dvd/D1");
+        assertEquals(OK, get.status());
+        assertEquals("Spirited Away", contentAsJson(get).get("title").textValue());
+    }
+
+
+    @Test
+    public void duplicateDvdIsRejected() {
+        assertEquals(CREATED, request(POST, "/library/dvd", dvdJson("D1", "Spirited Away")).status());
+
+        assertEquals(FORBIDDEN, request(POST, "/library/dvd", dvdJson("D1", "Spirited Away")).status());
+    }
+
+
+    @Test
+    public void updatedDvdIsServedWithNewDetails() {
+        assertEquals(CREATED, request(POST, "/library/dvd", dvdJson("D1", "Spirited Away")).status());
+        assertEquals(OK, request(GET, "/library/dvd").status()); // caches the listing before the update
+
+        long version = contentAsJson(request(GET, "/library/dvd/D1")).get("version").longValue();
+        ObjectNode update = dvdJson("D1", "Howl's Moving Castle").put("version", version);
+        assertEquals(OK, request(PUT, "/library/dvd", update).status());
+
+        assertEquals("Howl's Moving Castle",
+                contentAsJson(request(GET, "/library/dvd/D1")).get("title").textValue());
+        assertEquals("Howl's Moving Castle",
+                contentAsJson(request(GET, "/library/dvd")).get(0).get("title").textValue());
+    }
+
+
+    @Test
+    public void updateDoesNotTouchBookWithSameIsbn() {
+        assertEquals(CREATED, request(POST, "/library/books", bookJson("B1", "Persuasion")).status());
+
+        ObjectNode update = dvdJson("B1", "Spirited Away").put("version", 1);
+        assertEquals(NOT_FOUND, request(PUT, "/library/dvd", update).status());
+
+        assertEquals("Persuasion", contentAsJson(request(GET, "/library/books/B1")).get("title").textValue());
+    }
+
+
+    @Test
+    public void deletedDvdIsNoLongerFound() {
+        assertEquals(CREATED, request(POST, "/library/dvd", dvdJson("D1", "Spirited Away")).status());
+
+        assertEquals(OK, request(DELETE, "/library/dvd/D1").status());
+
+        assertEquals(NOT_FOUND, request(GET, "/library/dvd/D1").status());
+        assertEquals(NOT_FOUND, request(DELETE, "/library/dvd/D1").status());
+    }
+
+
+}
@@ -0,0 +1,111 @@
+package controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.Before;
+import org.junit.Test;
+import play.mvc.Result;
+
+import static org.junit.Assert.assertEquals;
+import static play.test.Helpers.BAD_REQUEST;
+import static play.test.Helpers.CREATED;
+import static play.test.Helpers.DELETE;
+import static play.test.Helpers.FORBIDDEN;
+import static play.test.Helpers.GET;
+import static play.test.Helpers.NOT_FOUND;
+import static play.test.Helpers.OK;
+import static play.test.Helpers.POST;
+import static play.test.Helpers.PUT;
+
+
+/**
+ * Tests of the Reader endpoints of ReaderController, including the loans of a Reader and the cached Reader lookup
+ */
+public class ReaderControllerTest extends WithLibraryDatabase {
+
+
+    /**
+     * Registers a Reader, and adds a Book and a Dvd to the catalog
+     */
+    @Before
+    public void registerReader() {
+        assertEquals(CREATED, request(POST, "/library/readers", readerJson("R1", "Ann Reader")).status());
+        assertEquals(CREATED, request(POST, "/library/books", bookJson("B1", "Persuasion")).status());
+        assertEquals(CREATED, request(POST, "/library/dvd", dvdJson("D1", "Spirited Away")).status());
+    }
+
+
+    @Test
+    public void loansListBorrowedItemsOldestFirst() {
+        assertEquals(OK, request(PUT, "/library/borrow", borrowJson("D1", "R1", "18/1/2020")).status());
+        assertEquals(OK, request(PUT, "/library/borrow", borrowJson("B1", "R1", "1/1/2020")).status());
+
+        Result result = request(GET, "/library/readers/R1/loans?asOf=20/1/2020");
+
+        assertEquals(OK, result.status());
+        JsonNode loans = contentAsJson(result);
+        assertEquals(2, loans.size());
+        assertEquals("B1", loans.get(0).get("isbn").textValue());
+        assertEquals(12, loans.get(0).get("overdueBy").intValue());
+        assertEquals("D1", loans.get(1).get("isbn").textValue());
+        assertEquals(0, loans.get(1).get("overdueBy").intValue());
+    }
+
+
+    @Test
+    public void loansOfReaderWithoutLoansAreEmpty() {
+        Result result = request(GET, "/library/readers/R1/loans");
+
+        assertEquals(OK, result.status());
+        assertEquals(0, contentAsJson(result).size());
+    }
+
+
+    @Test
+    public void loansOfUnknownReaderAreNotFound() {
+        assertEquals(NOT_FOUND, request(GET, "/library/readers/R2/loans").status());
+    }
+
+
+    @Test
+    public void readerLookupServesUpdatedDetails() {
+        assertEquals("Ann Reader", contentAsJson(request(GET, "/library/readers/R1")).get("name").textValue());
+
+        assertEquals(OK, request(PUT, "/library/readers", readerJson("R1", "Ann Writer")).status());
+
+        assertEquals("Ann Writer", contentAsJson(request(GET, "/library/readers/R1")).get("name").textValue());
+    }
+
+
+    @Test
+    public void deletedReaderIsNoLongerFound() {
+        assertEquals(OK, request(GET, "/library/readers/R1").status()); // caches the Reader before the delete
+
+        assertEquals(OK, request(DELETE, "/library/readers/R1").status());
+
+        assertEquals(NOT_FOUND, request(GET, "/library/readers/R1").status());
+        assertEquals(NOT_FOUND, request(PUT, "/library/borrow", borrowJson("B1", "R1", "1/1/2020")).status());
+    }
+
+
+
+    @Test
+    public void renameToTakenNameIsRejected() {
+        assertEquals(CREATED, request(POST, "/library/readers", readerJson("R2", "Ben Reader")).status());
+
+        assertEquals(FORBIDDEN, request(PUT, "/library/readers", readerJson("R2", "Ann Reader")).status());
+
+        assertEquals("Ben Reader", contentAsJson(request(GET, "/library/readers/R2")).get("name").textValue());
+    }
+
+
+    @Test
+    public void readerWithoutIdIsRejected() {
+        ObjectNode reader = readerJson("R2", "Ben Reader");
+        reader.remove("readerId");
+
+        assertEquals(BAD_REQUEST, request(POST, "/library/readers", reader).status());
+        assertEquals(BAD_REQUEST, request(PUT, "/library/readers", reader).status());
+    }
+
+}
@@ -0,0 +1,175 @@
+package controllers;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+
+/**
+ * JDBC driver which records every statement executed through the PostgreSQL driver, so that tests can assert how
+ * many round trips an operation makes to the database.
+ * Accepts URLs of the form "jdbc:counting:postgresql://...", and delegates them to the PostgreSQL driver with the
+ * "counting:" prefix removed. Statements are recorded per thread, so that only the statements of the operation under
+ * test are counted, and not those of the background projection, dispatch or search index jobs.
+ */
+public class StatementCountingDriver implements Driver {
+
+
+    /**
+     * Prefix of the URLs accepted by this driver
+     */
+    public static final String URL_PREFIX = "jdbc:counting:";
+
+
+    /**
+     * Statements executed by the current thread since the last reset
+     */
+    private static final ThreadLocal<List<String>> EXECUTED = ThreadLocal.withInitial(ArrayList::new);
+
+
+    static {
+        try {
+            DriverManager.registerDriver(new StatementCountingDriver());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+
+    /**
+     * Driver to which connections are delegated
+     */
+    private final Driver delegate;
+
+
+    /**
+     * Constructor method. Loads the PostgreSQL driver to which connections are delegated
+     */
+    public StatementCountingDriver() {
+        try {
+            delegate = (Driver) Class.forName("org.postgresql.Driver").newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("PostgreSQL driver is not on the classpath", e);
+        }
+    }
+
+
+    /**
+     * Method to forget the statements executed so far by the current thread
+     */
+    public static void reset() {
+        EXECUTED.get().clear();
+    }
+
+
+    /**
+     * Getter for the statements executed by the current thread since the last reset
+     * @return
+     */
+    public static List<String> executed() {
+        return Collections.unmodifiableList(new ArrayList<>(EXECUTED.get()));
+    }
+
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        Connection connection = delegate.connect("jdbc:" + url.substring(URL_PREFIX.length()), info);
+        return connection == null ? null : counting(Connection.class, connection, null);
+    }
+
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(URL_PREFIX);
+    }
+
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+        return delegate.getPropertyInfo("jdbc:" + url.substring(URL_PREFIX.length()), info);
+    }
+
+
+    @Override
+    public int getMajorVersion() {
+        return delegate.getMajorVersion();
+    }
+
+
+    @Override
+    public int getMinorVersion() {
+        return delegate.getMinorVersion();
+    }
+
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+
+    /**
+     * Private utility method to wrap a Connection or Statement, so that the statements created by a Connection are
+     * wrapped in turn, and every execution of a Statement is recorded
+     * @param type - interface of the wrapped object
+     * @param target - wrapped object
+     * @param sql - SQL of a prepared statement, or null
+     * @return
+     */
+    private static <T> T counting(Class<T> type, T target, String sql) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                EXECUTED.get().add(sql != null ? sql : args != null && args.length > 0 ? String.valueOf(args[0])
+                        : method.getName());
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (target instanceof Connection && result instanceof Statement) {
+                String statementSql = args != null && args.length > 0 && args[0] instanceof String
+                        ? (String) args[0] : null;
+                return counting(castTo(method.getReturnType()), (Statement) result, statementSql);
+            }
+            return result;
+        };
+        return type.cast(Proxy.newProxyInstance(StatementCountingDriver.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+
+    /**
+     * Private utility method to narrow the return type of a Connection method which creates a Statement
+     * @param returnType
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private static Class<Statement> castTo(Class<?> returnType) {
+        return (Class<Statement>) returnType;
+    }
+
+
+}
@@ -0,0 +1,122 @@
+package controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Before;
+import org.junit.Test;
+import play.libs.Json;
+import play.mvc.Result;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static play.test.Helpers.BAD_REQUEST;
+import static play.test.Helpers.CREATED;
+import static play.test.Helpers.GET;
+import static play.test.Helpers.OK;
+import static play.test.Helpers.POST;
+import static play.test.Helpers.PUT;
+
+
+/**
+ * Tests of the circulation and report endpoints of WestminsterLibraryManager
+ */
+public class WestminsterLibraryManagerTest extends WithLibraryDatabase {
+
+
+    /**
+     * Registers a Reader, and borrows two overdue and two not yet overdue Items of each type for the report of
+     * 20/1/2020. Books are due after 7 days and Dvds after 3 days.
+     */
+    @Before
+    public void borrowItems() {
+        assertEquals(CREATED, request(POST, "/library/readers", readerJson("R1", "Ann Reader")).status());
+        assertEquals(CREATED, request(POST, "/library/books", bookJson("B-OVERDUE", "Overdue Book")).status());
+        assertEquals(CREATED, request(POST, "/library/books", bookJson("B-ONTIME", "On Time Book")).status());
+        assertEquals(CREATED, request(POST, "/library/dvd", dvdJson("D-OVERDUE", "Overdue Dvd")).status());
+        assertEquals(CREATED, request(POST, "/library/dvd", dvdJson("D-ONTIME", "On Time Dvd")).status());
+        borrow("B-OVERDUE", "1/1/2020");
+        borrow("B-ONTIME", "15/1/2020"); // before the Dvd cut-off of 17/1/2020, but not overdue as a Book
+        borrow("D-OVERDUE", "10/1/2020");
+        borrow("D-ONTIME", "18/1/2020");
+    }
+
+
+    @Test
+    public void overdueReportOnlyListsOverdueItemsWithTheirFees() {
+        Result result = request(GET, "/library/report?generatedOn=20/1/2020&mode=overdue");
+
+        assertEquals(OK, result.status());
+        Map<String, JsonNode> items = itemsByIsbn(contentAsJson(result));
+        assertEquals(2, items.size());
+
+        JsonNode book = items.get("B-OVERDUE");
+        assertEquals("1/1/2020", book.get("borrowedOn").textValue());
+        assertEquals(12, book.get("overdueBy").intValue());
+        assertEquals(0, new BigDecimal("122.4").compareTo(book.get("fee").decimalValue()));
+
+        JsonNode dvd = items.get("D-OVERDUE");
+        assertEquals(7, dvd.get("overdueBy").intValue());
+        assertEquals(0, new BigDecimal("62.4").compareTo(dvd.get("fee").decimalValue()));
+    }
+
+
+    @Test
+    public void overdueReportAgreesWithFullReport() {
+        Map<String, JsonNode> all = itemsByIsbn(contentAsJson(
+                request(GET, "/library/report?generatedOn=20/1/2020&mode=all")));
+        Map<String, JsonNode> overdue = itemsByIsbn(contentAsJson(
+                request(GET, "/library/report?generatedOn=20/1/2020&mode=overdue")));
+
+        assertEquals(4, all.size());
+        for (Map.Entry<String, JsonNode> entry : overdue.entrySet()) {
+            JsonNode full = all.get(entry.getKey());
+            assertEquals(full.get("overdueBy").intValue(), entry.getValue().get("overdueBy").intValue());
+            assertEquals(0, full.get("fee").decimalValue().compareTo(entry.getValue().get("fee").decimalValue()));
+        }
+    }
+
+
+    @Test
+    public void circulationRequestsWithoutBodyOrFieldsAreRejected() {
+        for (String uri : Arrays.asList("/library/borrow", "/library/return", "/library/reserve",
+                "/library/reserve/cancel")) {
+            assertEquals(BAD_REQUEST, request(PUT, uri).status());
+            assertEquals(BAD_REQUEST, request(PUT, uri, Json.newObject()).status());
+        }
+        assertEquals(BAD_REQUEST, request(PUT, "/library/borrow", Json.newObject().put("isbn", "B-OVERDUE")
+                .put("readerId", "R1")).status());
+        assertEquals(BAD_REQUEST, request(PUT, "/library/return", Json.newObject().put("isbn", "B-OVERDUE"))
+                .status());
+        assertEquals(BAD_REQUEST, request(PUT, "/library/reserve", Json.newObject().put("isbn", "B-OVERDUE"))
+                .status());
+    }
+
+
+    /**
+     * Private utility method to borrow an Item for the registered Reader
+     * @param isbn
+     * @param borrowedOn
+     */
+    private void borrow(String isbn, String borrowedOn) {
+        assertEquals(OK, request(PUT, "/library/borrow", borrowJson(isbn, "R1", borrowedOn)).status());
+    }
+
+
+    /**
+     * Private utility method to key the items of a report by ISBN
+     * @param report
+     * @return
+     */
+    private static Map<String, JsonNode> itemsByIsbn(JsonNode report) {
+        Map<String, JsonNode> items = new HashMap<>();
+        for (JsonNode item : report.get("items")) {
+            items.put(item.get("isbn").textValue(), item);
+        }
+        return items;
+    }
+
+
+}
@@ -0,0 +1,195 @@
+package controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.ebean.Ebean;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import play.Application;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.libs.Json;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.test.WithApplication;
+
+import static org.junit.Assume.assumeTrue;
+import static play.test.Helpers.contentAsString;
+import static play.test.Helpers.route;
+
+
+/**
+ * Base class of tests which run the application against a PostgreSQL database.
+ * The database is given by the TEST_DATABASE_URL (a JDBC URL, e.g. jdbc:postgresql://localhost/library_test),
+ * TEST_DATABASE_USERNAME and TEST_DATABASE_PASSWORD environment variables, and evolutions are applied to it when the
+ * application starts. Tests are skipped if no database is given.
+ * All tables are emptied before each test, so the database must be dedicated to tests. Connections are made through
+ * StatementCountingDriver, so that tests can count the statements an operation executes.
+ */
+public abstract class WithLibraryDatabase extends WithApplication {
+
+
+    /**
+     * Host the requests are sent to, which the Allowed Hosts filter accepts
+     */
+    private static final String HOST = "localhost:9000";
+
+
+    /**
+     * Skips the tests of the class if no test database is configured
+     */
+    @BeforeClass
+    public static void requireDatabase() {
+        assumeTrue("TEST_DATABASE_URL is not set", System.getenv("TEST_DATABASE_URL") != null);
+    }
+
+
+    /**
+     * Builds the application against the test database, connected to through the statement counting driver
+     * @return
+     */
+    @Override
+    protected Application provideApplication() {
+        return new GuiceApplicationBuilder()
+                .configure("db.default.driver", StatementCountingDriver.class.getName())
+                .configure("db.default.url", StatementCountingDriver.URL_PREFIX +
+                        System.getenv("TEST_DATABASE_URL").substring("jdbc:".length()))
+                .configure("db.default.username", envOrEmpty("TEST_DATABASE_USERNAME"))
+                .configure("db.default.password", envOrEmpty("TEST_DATABASE_PASSWORD"))
+                .build();
+    }
+
+
+    /**
+     * Empties all tables and resets the inventory counters, after the application has applied evolutions
+     */
+    @Before
+    public void emptyDatabase() {
+        Ebean.createSqlUpdate("truncate table library_item, reader, ItemTransactionLog, reservation_entry," +
+                " circulation_event, projection_checkpoint, notification_outbox restart identity cascade")
+                .execute();
+        Ebean.createSqlUpdate("update inventory_counter set item_count = 0").execute();
+    }
+
+
+    /**
+     * Sends a request without a body to the application
+     * @param method
+     * @param uri
+     * @return
+     */
+    protected Result request(String method, String uri) {
+        return route(app, new Http.RequestBuilder().method(method).uri(uri).host(HOST));
+    }
+
+
+    /**
+     * Sends a request with a JSON body to the application
+     * @param method
+     * @param uri
+     * @param body
+     * @return
+     */
+    protected Result request(String method, String uri, JsonNode body) {
+        return route(app, new Http.RequestBuilder().method(method).uri(uri).host(HOST).bodyJson(body));
+    }
+
+
+    /**
+     * Reads the body of a response, which may be streamed, as JSON
+     * @param result
+     * @return
+     */
+    protected JsonNode contentAsJson(Result result) {
+        return Json.parse(contentAsString(result, mat));
+    }
+
+
+    /**
+     * Builds the JSON body registering a Reader
+     * @param readerId
+     * @param name
+     * @return
+     */
+    protected static ObjectNode readerJson(String readerId, String name) {
+        return Json.newObject()
+                .put("readerId", readerId)
+                .put("name", name)
+                .put("mobile", "0771234567")
+                .put("email", readerId + "@example.com");
+    }
+
+
+    /**
+     * Builds the JSON body saving a Book
+     * @param isbn
+     * @param title
+     * @return
+     */
+    protected static ObjectNode bookJson(String isbn, String title) {
+        ObjectNode book = itemJson(isbn, title);
+        book.putArray("authors").add("Jane Doe");
+        book.put("publisher", "Penguin");
+        book.put("noOfPages", 320);
+        return book;
+    }
+
+
+    /**
+     * Builds the JSON body saving a Dvd
+     * @param isbn
+     * @param title
+     * @return
+     */
+    protected static ObjectNode dvdJson(String isbn, String title) {
+        ObjectNode dvd = itemJson(isbn, title);
+        dvd.putArray("audio").add("English");
+        dvd.putArray("subtitles").add("French");
+        dvd.put("producer", "Studio Ghibli");
+        dvd.putArray("actors").add("John Roe");
+        return dvd;
+    }
+
+
+    /**
+     * Builds the JSON body borrowing an Item
+     * @param isbn
+     * @param readerId
+     * @param borrowedOn - date in the format day/month/year
+     * @return
+     */
+    protected static ObjectNode borrowJson(String isbn, String readerId, String borrowedOn) {
+        return Json.newObject()
+                .put("isbn", isbn)
+                .put("readerId", readerId)
+                .put("borrowedOn", borrowedOn);
+    }
+
+
+    /**
+     * Private utility method to build the fields shared by all Library Items
+     * @param isbn
+     * @param title
+     * @return
+     */
+    private static ObjectNode itemJson(String isbn, String title) {
+        ObjectNode item = Json.newObject()
+                .put("isbn", isbn)
+                .put("title", title)
+                .put("section", "Fiction");
+        item.putObject("pubDate").put("day", 1).put("month", 1).put("year", 2010);
+        return item;
+    }
+
+
+    /**
+     * Private utility method to read an environment variable, or an empty string if it is not set
+     * @param name
+     * @return
+     */
+    private static String envOrEmpty(String name) {
+        String value = System.getenv(name);
+        return value == null ? "" : value;
+    }
+
+
+}
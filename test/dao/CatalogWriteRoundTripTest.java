@@ -0,0 +1,196 @@
+package dao;
+
+import controllers.StatementCountingDriver;
+import controllers.WithLibraryDatabase;
+import io.ebean.Ebean;
+import models.Book;
+import models.Dvd;
+import models.Reader;
+import org.junit.Before;
+import org.junit.Test;
+import play.libs.Json;
+
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.OptimisticLockException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Tests of the number of statements, each a round trip to the database, which the Data Access Objects execute to
+ * write Books, Dvds and Readers. Updates and deletes must not query whether the record exists before writing it.
+ */
+public class CatalogWriteRoundTripTest extends WithLibraryDatabase {
+
+
+    /**
+     * Book Data Access Object under test
+     */
+    private BookDao bookDao;
+
+
+    /**
+     * Dvd Data Access Object under test
+     */
+    private DvdDao dvdDao;
+
+
+    /**
+     * Reader Data Access Object under test
+     */
+    private ReaderDao readerDao;
+
+
+    /**
+     * Resolves the Data Access Objects, and inserts a first Book so that the inventory counters are loaded before
+     * statements are counted
+     */
+    @Before
+    public void insertFirstBook() throws Exception {
+        bookDao = app.injector().instanceOf(BookDao.class);
+        dvdDao = app.injector().instanceOf(DvdDao.class);
+        readerDao = app.injector().instanceOf(ReaderDao.class);
+        bookDao.insertBook(book("B1", "Persuasion", 0));
+    }
+
+
+    @Test
+    public void insertReservesCapacityChecksIsbnAndInsertsItemAndLog() throws Exception {
+        StatementCountingDriver.reset();
+
+        bookDao.insertBook(book("B2", "Emma", 0));
+
+        assertStatements(4);
+    }
+
+
+    @Test
+    public void updateIsASingleStatement() {
+        StatementCountingDriver.reset();
+
+        bookDao.updateBook(book("B1", "Sense and Sensibility", 1));
+
+        assertStatements(1);
+        assertEquals("Sense and Sensibility", Ebean.find(Book.class, "B1").getTitle());
+        assertEquals(2, Ebean.find(Book.class, "B1").getVersion());
+    }
+
+
+    @Test
+    public void updateWithoutVersionIsASingleStatement() {
+        StatementCountingDriver.reset();
+
+        bookDao.updateBook(book("B1", "Sense and Sensibility", 0));
+
+        assertStatements(1);
+        assertEquals("Sense and Sensibility", Ebean.find(Book.class, "B1").getTitle());
+    }
+
+
+    @Test
+    public void staleUpdateOnlyQueriesExistenceAfterFailing() {
+        StatementCountingDriver.reset();
+        try {
+            bookDao.updateBook(book("B1", "Sense and Sensibility", 5));
+            fail("Update with a stale version should be rejected");
+        } catch (OptimisticLockException e) {
+            // expected
+        }
+
+        assertStatements(2);
+        assertEquals("Persuasion", Ebean.find(Book.class, "B1").getTitle());
+    }
+
+
+    @Test
+    public void updateOfMissingBookOnlyQueriesExistenceAfterFailing() {
+        StatementCountingDriver.reset();
+        try {
+            bookDao.updateBook(book("B2", "Emma", 1));
+            fail("Update of a missing Book should be rejected");
+        } catch (EntityNotFoundException e) {
+            // expected
+        }
+
+        assertStatements(2);
+    }
+
+
+    @Test
+    public void dvdUpdateDoesNotMatchBookWithSameIsbn() {
+        Dvd dvd = Json.fromJson(dvdJson("B1", "Spirited Away").put("version", 1), Dvd.class);
+        try {
+            dvdDao.updateDvd(dvd);
+            fail("Update of a Dvd should not match a Book");
+        } catch (EntityNotFoundException e) {
+            // expected
+        }
+
+        assertEquals("Persuasion", Ebean.find(Book.class, "B1").getTitle());
+    }
+
+
+    @Test
+    public void deleteIsOneDeleteAndOneCounterUpdate() {
+        StatementCountingDriver.reset();
+
+        bookDao.deleteBook("B1");
+
+        assertStatements(2);
+    }
+
+
+    @Test
+    public void deleteOfMissingBookIsASingleStatement() {
+        StatementCountingDriver.reset();
+        try {
+            bookDao.deleteBook("B2");
+            fail("Delete of a missing Book should be rejected");
+        } catch (EntityNotFoundException e) {
+            // expected
+        }
+
+        assertStatements(1);
+    }
+
+
+    @Test
+    public void readerUpdateAndDeleteAreSingleStatements() throws Exception {
+        readerDao.insertReader(Json.fromJson(readerJson("R1", "Ann Reader"), Reader.class));
+
+        StatementCountingDriver.reset();
+        readerDao.updateReader(Json.fromJson(readerJson("R1", "Ann Writer"), Reader.class));
+        assertStatements(1);
+
+        StatementCountingDriver.reset();
+        readerDao.deleteReader("R1");
+        assertStatements(1);
+    }
+
+
+    /**
+     * Private utility method to build a Book as deserialized from a request
+     * @param isbn
+     * @param title
+     * @param version - version read by the client, or 0 if none is sent
+     * @return
+     */
+    private static Book book(String isbn, String title, long version) {
+        return Json.fromJson(version == 0 ? bookJson(isbn, title) : bookJson(isbn, title).put("version", version),
+                Book.class);
+    }
+
+
+    /**
+     * Private utility method to assert the number of statements executed by the test since the counter was reset
+     * @param expected
+     */
+    private static void assertStatements(int expected) {
+        List<String> executed = StatementCountingDriver.executed();
+        assertEquals("Statements executed: " + executed, expected, executed.size());
+    }
+
+
+}
@@ -0,0 +1,77 @@
+package dao;
+
+import controllers.WithLibraryDatabase;
+import io.ebean.Ebean;
+import io.ebean.SqlRow;
+import io.ebean.Transaction;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Tests that the predicates of the hottest queries are answered from the secondary indexes of evolution 11.sql,
+ * and fail if any of them regresses to a sequential scan.
+ * The test tables are nearly empty, so sequential scans are disabled while planning: the planner then only falls
+ * back to a sequential scan if no index can answer the predicate.
+ */
+public class QueryPlanTest extends WithLibraryDatabase {
+
+
+    @Test
+    public void reportReadsBorrowedItemsFromPartialIndex() {
+        assertUsesIndex("ix_library_item_borrowed_on",
+                "select isbn, title, borrowed_on from library_item where borrowed_on is not null");
+        assertUsesIndex("ix_library_item_borrowed_on",
+                "select isbn, title, borrowed_on from library_item where borrowed_on < date '2020-01-13'");
+    }
+
+
+    @Test
+    public void readerNameIsCheckedThroughUniqueIndex() {
+        assertUsesIndex("uq_reader_name", "select count(*) from reader where name = 'Ann Reader'");
+    }
+
+
+    @Test
+    public void loansAreLookedUpThroughPartialCurrentReaderIndex() {
+        assertUsesIndex("ix_library_item_current_reader_borrowed",
+                "select isbn, borrowed_on from library_item where current_reader_reader_id = 'R1'" +
+                        " order by borrowed_on");
+    }
+
+
+    /**
+     * Private utility method to assert that the plan of a query reads the given index and no table sequentially
+     * @param index - name of the index
+     * @param sql - query to be planned
+     */
+    private static void assertUsesIndex(String index, String sql) {
+        String plan = explain(sql);
+        assertFalse("Sequential scan in plan:\n" + plan, plan.contains("Seq Scan"));
+        assertTrue("Index " + index + " not used in plan:\n" + plan, plan.contains(index));
+    }
+
+
+    /**
+     * Private utility method to plan a query with sequential scans disabled
+     * @param sql
+     * @return - the lines of the plan
+     */
+    private static String explain(String sql) {
+        try (Transaction transaction = Ebean.beginTransaction()) {
+            Ebean.createSqlUpdate("set local enable_seqscan = off").execute();
+            List<String> lines = new ArrayList<>();
+            for (SqlRow row : Ebean.createSqlQuery("explain " + sql).findList()) {
+                lines.add(String.valueOf(row.values().iterator().next())); // the only column, "QUERY PLAN"
+            }
+            return String.join("\n", lines);
+        }
+    }
+
+
+}
@@ -0,0 +1,87 @@
+package dao;
+
+import controllers.WithLibraryDatabase;
+import org.junit.Before;
+import org.junit.Test;
+import utils.MyDateUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static play.test.Helpers.CREATED;
+import static play.test.Helpers.OK;
+import static play.test.Helpers.POST;
+import static play.test.Helpers.PUT;
+
+
+/**
+ * Tests that the report on borrowed items is read page by page, each page continuing after the last ISBN of the
+ * previous one
+ */
+public class ReportDaoTest extends WithLibraryDatabase {
+
+
+    /**
+     * Date of the report, by which all borrowed Items are overdue
+     */
+    private static final MyDateUtil REPORT_DATE = new MyDateUtil("20/2/2020");
+
+
+    /**
+     * Report Data Access Object under test
+     */
+    private ReportDao reportDao;
+
+
+    /**
+     * Registers a Reader who borrows three Books, and adds a fourth Book which is not borrowed
+     */
+    @Before
+    public void borrowBooks() {
+        reportDao = app.injector().instanceOf(ReportDao.class);
+        assertEquals(CREATED, request(POST, "/library/readers", readerJson("R1", "Ann Reader")).status());
+        for (String isbn : Arrays.asList("B3", "B1", "B4", "B2")) {
+            assertEquals(CREATED, request(POST, "/library/books", bookJson(isbn, "Book " + isbn)).status());
+        }
+        for (String isbn : Arrays.asList("B3", "B1", "B2")) {
+            assertEquals(OK, request(PUT, "/library/borrow", borrowJson(isbn, "R1", "1/1/2020")).status());
+        }
+    }
+
+
+    @Test
+    public void reportPagesContinueAfterPreviousPage() {
+        assertEquals(Arrays.asList("B1", "B2", "B3"), readAllPages(false));
+    }
+
+
+    @Test
+    public void overdueReportPagesContinueAfterPreviousPage() {
+        assertEquals(Arrays.asList("B1", "B2", "B3"), readAllPages(true));
+    }
+
+
+    /**
+     * Private utility method to read the report in pages of two Items
+     * @param overdueOnly - whether only overdue items are reported
+     * @return - ISBNs of the reported Items, in the order they were read
+     */
+    private List<String> readAllPages(boolean overdueOnly) {
+        List<String> isbns = new ArrayList<>();
+        String after = null;
+        List<ReportEntry> page;
+        do {
+            page = overdueOnly ? reportDao.findOverdueReportPage(REPORT_DATE, after, 2)
+                    : reportDao.findReportPage(REPORT_DATE, after, 2);
+            for (ReportEntry entry : page) {
+                isbns.add(entry.getIsbn());
+                after = entry.getIsbn();
+            }
+        } while (page.size() == 2);
+        return isbns;
+    }
+
+
+}